@@ -325,6 +325,7 @@ export const MetadataViewTableContainer = (props: MetadataViewTableContainerProp
         if (totalCount === undefined) return '...';
         if (totalCount === -1) return `more than ${to}`;
         if (viewCountDisplayLimitReached) return `more than ${viewCountDisplayLimit - 1}`;
+        if (count?.estimated) return `about ${totalCount}`;
         return totalCount;
     };
 
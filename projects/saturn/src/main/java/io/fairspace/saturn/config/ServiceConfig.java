@@ -6,13 +6,17 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.Nullable;
 
+import io.fairspace.saturn.config.properties.SearchProperties;
+import io.fairspace.saturn.config.properties.ViewDatabaseProperties;
 import io.fairspace.saturn.config.properties.ViewsProperties;
 import io.fairspace.saturn.rdf.transactions.Transactions;
 import io.fairspace.saturn.services.search.FileSearchService;
 import io.fairspace.saturn.services.search.JdbcFileSearchService;
 import io.fairspace.saturn.services.search.SparqlFileSearchService;
+import io.fairspace.saturn.services.views.FacetProvider;
 import io.fairspace.saturn.services.views.JdbcQueryService;
 import io.fairspace.saturn.services.views.QueryService;
+import io.fairspace.saturn.services.views.SparqlFacetProvider;
 import io.fairspace.saturn.services.views.SparqlQueryService;
 import io.fairspace.saturn.services.views.ViewStoreClientFactory;
 import io.fairspace.saturn.services.views.ViewStoreReader;
@@ -29,10 +33,13 @@ public class ServiceConfig {
             @Nullable ViewStoreClientFactory viewStoreClientFactory,
             Transactions transactions,
             @Qualifier("davFactory") DavFactory davFactory,
-            ViewStoreReader viewStoreReader) {
+            ViewStoreReader viewStoreReader,
+            SearchProperties searchProperties,
+            ViewDatabaseProperties viewDatabaseProperties) {
         return viewStoreClientFactory == null
                 ? sparqlQueryService
-                : new JdbcQueryService(transactions, davFactory.root, viewStoreReader);
+                : new JdbcQueryService(
+                        transactions, davFactory.root, viewStoreReader, searchProperties, viewDatabaseProperties);
     }
 
     @Bean
@@ -53,4 +60,14 @@ public class ServiceConfig {
                 ? new SparqlFileSearchService(filteredDataset)
                 : new JdbcFileSearchService(transactions, davFactory.root, viewStoreReader);
     }
+
+    @Bean
+    public FacetProvider facetProvider(
+            @Qualifier("filteredDataset") Dataset filteredDataset,
+            @Nullable ViewStoreClientFactory viewStoreClientFactory,
+            ViewStoreReader viewStoreReader) {
+        // Scanning the RDF database for the values of every column gets slow on large datasets,
+        // so the facets are computed from the view database when it is available.
+        return viewStoreClientFactory == null ? new SparqlFacetProvider(filteredDataset) : viewStoreReader;
+    }
 }
@@ -61,8 +61,9 @@ public class WebDAVConfig {
     public WebDAVServlet webDavServlet(
             @Qualifier("davFactory") DavFactory davFactory,
             Transactions transactions,
-            @Qualifier("blobStore") BlobStore blobStore) {
-        return new WebDAVServlet(davFactory, transactions, blobStore);
+            @Qualifier("blobStore") BlobStore blobStore,
+            WebDavProperties webDavProperties) {
+        return new WebDAVServlet(davFactory, transactions, blobStore, webDavProperties.getUploadThreads());
     }
 
     /**
@@ -65,8 +65,9 @@ public class WebDAVExtraStorageConfig {
     public WebDAVServlet extraDavServlet(
             @Qualifier("extraDavFactory") DavFactory davFactory,
             Transactions transactions,
-            @Qualifier("extraBlobStore") BlobStore blobStore) {
-        return new WebDAVServlet(davFactory, transactions, blobStore);
+            @Qualifier("extraBlobStore") BlobStore blobStore,
+            WebDavProperties webDavProperties) {
+        return new WebDAVServlet(davFactory, transactions, blobStore, webDavProperties.getUploadThreads());
     }
 
     private void initExtraStorageRootDirectories(
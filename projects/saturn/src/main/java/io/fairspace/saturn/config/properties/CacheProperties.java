@@ -21,5 +21,8 @@ public class CacheProperties {
         private boolean autoRefreshEnabled;
 
         private Long refreshFrequencyInHours;
+
+        // Delay after a change of the data, during which further changes are collected before refreshing
+        private long refreshOnChangeDelayInMillis = 1000;
     }
 }
@@ -24,6 +24,10 @@ public class JenaProperties {
 
     private boolean bulkTransactions;
 
+    private int bulkTransactionsMaxBatchSize = 1000;
+
+    private long bulkTransactionsMaxBatchWait;
+
     private long sparqlQueryTimeout;
 
     private final StoreParams storeParams;
@@ -17,4 +17,10 @@ public class SearchProperties {
      * maxJoinItems is used to limit number of joined entries (from the join view) to decrease the response size
      */
     private int maxJoinItems;
+
+    /**
+     * Counts of view rows are estimated from the query plan instead of counted exactly
+     * when more rows than this threshold are expected. Counts are always exact when it is 0.
+     */
+    private long exactCountThreshold;
 }
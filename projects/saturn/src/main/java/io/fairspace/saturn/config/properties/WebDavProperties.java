@@ -14,6 +14,9 @@ public class WebDavProperties {
     // Path of the WebDAV's local blob store
     private String blobStorePath;
 
+    // Number of files of a multi-file upload that are stored concurrently
+    private int uploadThreads = 8;
+
     private ExtraStorage extraStorage;
 
     @Data
@@ -28,6 +28,12 @@ public class MaintenanceController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/migrate-blob-store")
+    public ResponseEntity<Void> migrateBlobStore() {
+        maintenanceService.startBlobStoreMigrationTask();
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/status")
     public ResponseEntity<String> getStatus() {
         var status = maintenanceService.active() ? "active" : "inactive";
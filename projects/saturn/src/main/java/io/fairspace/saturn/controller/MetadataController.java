@@ -1,5 +1,10 @@
 package io.fairspace.saturn.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.jena.rdf.model.Model;
@@ -7,11 +12,11 @@ import org.apache.jena.rdf.model.ResourceFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -24,10 +29,12 @@ import io.fairspace.saturn.controller.validation.ValidIri;
 import io.fairspace.saturn.services.metadata.MetadataService;
 
 import static io.fairspace.saturn.controller.enums.CustomMediaType.APPLICATION_LD_JSON;
+import static io.fairspace.saturn.controller.enums.CustomMediaType.APPLICATION_N_QUADS;
 import static io.fairspace.saturn.controller.enums.CustomMediaType.APPLICATION_N_TRIPLES;
 import static io.fairspace.saturn.controller.enums.CustomMediaType.TEXT_TURTLE;
 import static io.fairspace.saturn.services.metadata.Serialization.deserialize;
 import static io.fairspace.saturn.services.metadata.Serialization.getFormat;
+import static io.fairspace.saturn.services.metadata.Serialization.getStreamingLang;
 import static io.fairspace.saturn.services.metadata.Serialization.serialize;
 
 @Log4j2
@@ -41,19 +48,24 @@ public class MetadataController {
 
     public static final String DO_VIEWS_UPDATE_DEFAULT_VALUE = "true";
 
+    public static final String INGEST_CHUNK_SIZE_DEFAULT_VALUE = "10000";
+
     private final MetadataService metadataService;
 
     @GetMapping(
             value = "/",
             produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_LD_JSON, TEXT_TURTLE, APPLICATION_N_TRIPLES})
-    public ResponseEntity<String> getMetadata(
+    public void getMetadata(
             @RequestParam(required = false) String subject,
             @RequestParam(name = "withValueProperties", defaultValue = "false") boolean withValueProperties,
-            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptHeader) {
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptHeader,
+            HttpServletResponse response)
+            throws IOException {
         var model = metadataService.get(subject, withValueProperties);
         var format = getFormat(acceptHeader);
-        var metadata = serialize(model, format);
-        return ResponseEntity.ok(metadata);
+        response.setContentType(format.getLang().getHeaderString());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        serialize(model, format, response.getOutputStream());
     }
 
     @PutMapping(
@@ -61,7 +73,7 @@ public class MetadataController {
             consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_LD_JSON, TEXT_TURTLE, APPLICATION_N_TRIPLES})
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void putMetadata(
-            @RequestBody String body,
+            InputStream body,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
             @RequestParam(name = DO_VIEWS_UPDATE, defaultValue = DO_VIEWS_UPDATE_DEFAULT_VALUE)
                     boolean doMaterializedViewsRefresh) {
@@ -74,13 +86,26 @@ public class MetadataController {
             consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_LD_JSON, TEXT_TURTLE, APPLICATION_N_TRIPLES})
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void patchMetadata(
-            @RequestBody String body,
+            InputStream body,
             @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
             @RequestParam(name = DO_VIEWS_UPDATE, defaultValue = DO_VIEWS_UPDATE_DEFAULT_VALUE) boolean doViewsUpdate) {
         Model model = deserialize(body, contentType);
         metadataService.patch(model, doViewsUpdate);
     }
 
+    @PostMapping(
+            value = "/ingest",
+            consumes = {APPLICATION_N_TRIPLES, APPLICATION_N_QUADS})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void ingestMetadata(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(name = "chunkSize", defaultValue = INGEST_CHUNK_SIZE_DEFAULT_VALUE) int chunkSize,
+            @RequestParam(name = DO_VIEWS_UPDATE, defaultValue = DO_VIEWS_UPDATE_DEFAULT_VALUE) boolean doViewsUpdate) {
+        var count = metadataService.ingest(body, getStreamingLang(contentType), chunkSize, doViewsUpdate);
+        log.info("Ingested {} statements", count);
+    }
+
     @DeleteMapping("/")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteMetadata(
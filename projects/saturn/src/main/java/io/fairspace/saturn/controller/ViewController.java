@@ -1,7 +1,14 @@
 package io.fairspace.saturn.controller;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +26,8 @@ import io.fairspace.saturn.controller.dto.request.ViewRequest;
 import io.fairspace.saturn.services.views.QueryService;
 import io.fairspace.saturn.services.views.ViewService;
 
+import static org.springframework.util.DigestUtils.md5DigestAsHex;
+
 @RestController
 @RequestMapping("/views")
 @Validated
@@ -28,15 +37,22 @@ public class ViewController {
 
     private final QueryService services;
 
-    public ViewController(ViewService viewService, @Qualifier("queryService") QueryService services) {
+    private final ObjectMapper objectMapper;
+
+    // Serialized responses of the cached views and facets, by endpoint
+    private final Map<String, SerializedResponse> serializedResponses = new ConcurrentHashMap<>();
+
+    public ViewController(
+            ViewService viewService, @Qualifier("queryService") QueryService services, ObjectMapper objectMapper) {
         this.viewService = viewService;
         this.services = services;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/")
-    public ResponseEntity<ViewsDto> getViews() {
-        var views = viewService.getViews();
-        return ResponseEntity.ok(new ViewsDto(views));
+    public ResponseEntity<byte[]> getViews() {
+        var views = viewService.getVersionedViews();
+        return cachedJsonResponse("views", views.version(), () -> new ViewsDto(views.value()));
     }
 
     @PostMapping("/")
@@ -46,9 +62,9 @@ public class ViewController {
     }
 
     @GetMapping("/facets")
-    public ResponseEntity<FacetsDto> getFacets() {
-        var facets = viewService.getFacets();
-        return ResponseEntity.ok(new FacetsDto(facets));
+    public ResponseEntity<byte[]> getFacets() {
+        var facets = viewService.getVersionedFacets();
+        return cachedJsonResponse("facets", facets.version(), () -> new FacetsDto(facets.value()));
     }
 
     @PostMapping("/count")
@@ -56,4 +72,26 @@ public class ViewController {
         var result = services.count(requestBody);
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * Views and facets are cached by {@link ViewService} and requested on every page load.
+     * Their JSON is only serialized once per version of the cache entry, and tagged with an ETag,
+     * so that a client sending a matching If-None-Match header gets a 304 response without a body.
+     * The ETag only depends on the JSON, as refreshes bump the version even when the content is unchanged.
+     */
+    @SneakyThrows
+    private ResponseEntity<byte[]> cachedJsonResponse(String key, long version, Supplier<Object> dto) {
+        var response = serializedResponses.get(key);
+        if (response == null || response.version() != version) {
+            var json = objectMapper.writeValueAsBytes(dto.get());
+            response = new SerializedResponse(version, "\"" + md5DigestAsHex(json) + "\"", json);
+            serializedResponses.put(key, response);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .body(response.json());
+    }
+
+    private record SerializedResponse(long version, String etag, byte[] json) {}
 }
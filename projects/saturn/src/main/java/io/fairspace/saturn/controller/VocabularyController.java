@@ -1,11 +1,21 @@
 package io.fairspace.saturn.controller;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.compose.Dyadic;
+import org.apache.jena.rdf.listeners.StatementListener;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.RDFFormat;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,24 +24,78 @@ import org.springframework.web.bind.annotation.RestController;
 import static io.fairspace.saturn.services.metadata.Serialization.getFormat;
 import static io.fairspace.saturn.services.metadata.Serialization.serialize;
 
+import static org.apache.jena.rdf.model.ModelFactory.createModelForGraph;
+
+/**
+ * Serves the vocabulary, which is requested by the UI on every page load but rarely changes.
+ * The serialized vocabulary is cached per format and tagged with a strong ETag derived from its content only,
+ * so that clients can revalidate their copy with If-None-Match.
+ * The cache is invalidated whenever the vocabulary graph, or any graph it is composed of, is modified.
+ */
 @RestController
 @RequestMapping("/vocabulary")
 public class VocabularyController {
 
     private final Model vocabulary;
+    private final AtomicLong version = new AtomicLong();
+    private final Map<RDFFormat, SerializedVocabulary> cache = new ConcurrentHashMap<>();
 
     public VocabularyController(@Qualifier("vocabulary") Model vocabulary) {
         this.vocabulary = vocabulary;
+        watch(vocabulary.getGraph());
     }
 
     @GetMapping("/")
-    public ResponseEntity<String> getVocabulary(
+    public ResponseEntity<byte[]> getVocabulary(
             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String acceptHeader) {
         var format = getFormat(acceptHeader);
-        var contentType = format.getLang().getHeaderString();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType(contentType));
-        var serializedVocabulary = serialize(vocabulary, format);
-        return new ResponseEntity<>(serializedVocabulary, headers, HttpStatus.OK);
+        var serialized = getSerializedVocabulary(format);
+        // A matching If-None-Match header results in a 304 response without a body
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getLang().getHeaderString()))
+                .eTag(serialized.etag())
+                .body(serialized.content());
     }
+
+    private SerializedVocabulary getSerializedVocabulary(RDFFormat format) {
+        var currentVersion = version.get();
+        var cached = cache.get(format);
+        if (cached != null && cached.version() == currentVersion) {
+            return cached;
+        }
+        var out = new ByteArrayOutputStream();
+        serialize(vocabulary, format, out);
+        var content = out.toByteArray();
+        // The version is read before serializing, so a concurrent modification invalidates this entry
+        var serialized =
+                new SerializedVocabulary(currentVersion, "\"" + DigestUtils.md5DigestAsHex(content) + "\"", content);
+        cache.put(format, serialized);
+        return serialized;
+    }
+
+    private void watch(Graph graph) {
+        createModelForGraph(graph).register(new StatementListener() {
+            @Override
+            public void addedStatement(Statement s) {
+                version.incrementAndGet();
+            }
+
+            @Override
+            public void removedStatement(Statement s) {
+                version.incrementAndGet();
+            }
+
+            @Override
+            public void notifyEvent(Model m, Object event) {
+                version.incrementAndGet();
+            }
+        });
+        // Changes made directly to the parts of a union are not reported by the union itself
+        if (graph instanceof Dyadic dyadic) {
+            watch(dyadic.getL());
+            watch(dyadic.getR());
+        }
+    }
+
+    private record SerializedVocabulary(long version, String etag, byte[] content) {}
 }
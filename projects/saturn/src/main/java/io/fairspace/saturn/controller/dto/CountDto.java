@@ -1,3 +1,10 @@
 package io.fairspace.saturn.controller.dto;
 
-public record CountDto(long count, boolean timeout) {}
+/**
+ * @param estimated true if the count is an estimate of the query planner rather than an exact count
+ */
+public record CountDto(long count, boolean timeout, boolean estimated) {
+    public CountDto(long count, boolean timeout) {
+        this(count, timeout, false);
+    }
+}
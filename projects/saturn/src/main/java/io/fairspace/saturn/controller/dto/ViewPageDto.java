@@ -19,4 +19,8 @@ public class ViewPageDto {
     boolean timeout;
     Long totalCount;
     Long totalPages;
+    /**
+     * True if the total count is an estimate rather than an exact count.
+     */
+    boolean countEstimated;
 }
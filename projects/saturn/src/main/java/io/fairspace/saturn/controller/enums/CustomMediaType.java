@@ -9,5 +9,7 @@ public enum CustomMediaType {
 
     public static final String APPLICATION_N_TRIPLES = "application/n-triples";
 
+    public static final String APPLICATION_N_QUADS = "application/n-quads";
+
     public static final String APPLICATION_SPARQL_QUERY = "application/sparql-query";
 }
@@ -0,0 +1,91 @@
+package io.fairspace.saturn.rdf;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.query.text.changes.TextQuadAction;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Symbol;
+
+/**
+ * Notifies listeners of the predicates of all statements added or removed by a write transaction,
+ * once that transaction has been committed.
+ * The wrapper is registered in the dataset's context under {@link #CHANGED_PREDICATES},
+ * so that services can subscribe to the changes without depending on the dataset's configuration.
+ */
+@Log4j2
+public class ChangedPredicatesDatasetGraph extends AbstractChangesAwareDatasetGraph {
+    public static final Symbol CHANGED_PREDICATES = Symbol.create("changed_predicates");
+
+    // Write transactions are handled sequentially, so one set is enough
+    private final Set<Node> changedPredicates = new HashSet<>();
+    private final List<Consumer<Set<Node>>> listeners = new CopyOnWriteArrayList<>();
+
+    public ChangedPredicatesDatasetGraph(DatasetGraph dsg) {
+        super(dsg);
+        dsg.getContext().set(CHANGED_PREDICATES, this);
+    }
+
+    /**
+     * Registers a listener, which is called with the predicates changed by every committed write transaction.
+     * Listeners are called on the committing thread and should return quickly.
+     */
+    public void addListener(Consumer<Set<Node>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    protected void onChange(TextQuadAction action, Node graph, Node subject, Node predicate, Node object) {
+        switch (action) {
+            case ADD, DELETE -> changedPredicates.add(predicate);
+        }
+    }
+
+    @Override
+    public void begin(TxnType type) {
+        begin(TxnType.convert(type));
+        if (isInWriteTransaction()) {
+            changedPredicates.clear();
+        }
+    }
+
+    @Override
+    public void commit() {
+        if (!isInWriteTransaction()) {
+            super.commit();
+            return;
+        }
+        var predicates = Set.copyOf(changedPredicates);
+        changedPredicates.clear();
+        super.commit();
+        if (!predicates.isEmpty()) {
+            for (var listener : listeners) {
+                try {
+                    listener.accept(predicates);
+                } catch (Exception e) {
+                    log.error("Error notifying a listener of changed predicates", e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void abort() {
+        var write = isInWriteTransaction();
+        super.abort();
+        if (write) {
+            changedPredicates.clear();
+        }
+    }
+
+    private boolean isInWriteTransaction() {
+        return transactionMode() == ReadWrite.WRITE;
+    }
+}
@@ -0,0 +1,146 @@
+package io.fairspace.saturn.rdf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.query.text.changes.TextQuadAction;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.util.Symbol;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+import io.fairspace.saturn.vocabulary.FS;
+
+import static org.apache.jena.graph.Node.ANY;
+
+/**
+ * Keeps track of the names of all collections, so that a collection can be found by its name
+ * without listing and resolving all of them.
+ * The index is registered in the dataset's context under {@link #COLLECTION_NAME_INDEX}.
+ * <p>
+ * Names are matched ignoring case. The index may contain subjects which are no longer collections
+ * or which have been renamed, e.g. after an aborted transaction, so callers have to check the candidates
+ * against the dataset. It never misses a collection though: names are added as soon as they are written
+ * and only removed after a commit, when they are gone from the dataset.
+ */
+public class CollectionNameIndex extends AbstractChangesAwareDatasetGraph {
+    public static final Symbol COLLECTION_NAME_INDEX = Symbol.create("collection_name_index");
+
+    private static final Node LABEL = RDFS.label.asNode();
+    private static final Node TYPE = RDF.type.asNode();
+    private static final Node COLLECTION = FS.Collection.asNode();
+
+    private final Map<String, Set<Node>> subjectsByName = new ConcurrentHashMap<>();
+    // Removals of the active write transaction, there is at most one at a time
+    private final List<Removal> removals = new ArrayList<>();
+    private volatile boolean initialized;
+
+    public CollectionNameIndex(DatasetGraph dsg) {
+        super(dsg);
+        dsg.getContext().set(COLLECTION_NAME_INDEX, this);
+    }
+
+    /**
+     * Returns all subjects which are or were recently collections with the given name, ignoring case.
+     * Must be called within a transaction.
+     */
+    public Set<Node> lookup(String name) {
+        if (!initialized) {
+            initialize();
+        }
+        return Set.copyOf(subjectsByName.getOrDefault(key(name), Set.of()));
+    }
+
+    private synchronized void initialize() {
+        if (!initialized) {
+            find(ANY, ANY, TYPE, COLLECTION).forEachRemaining(type -> find(ANY, type.getSubject(), LABEL, ANY)
+                    .forEachRemaining(label -> add(label.getSubject(), label.getObject())));
+            initialized = true;
+        }
+    }
+
+    @Override
+    protected void onChange(TextQuadAction action, Node graph, Node subject, Node predicate, Node object) {
+        switch (action) {
+            case ADD -> {
+                if (predicate.equals(LABEL) && contains(graph, subject, TYPE, COLLECTION)) {
+                    add(subject, object);
+                } else if (predicate.equals(TYPE) && object.equals(COLLECTION)) {
+                    find(graph, subject, LABEL, ANY).forEachRemaining(label -> add(subject, label.getObject()));
+                }
+            }
+            case DELETE -> {
+                if (predicate.equals(LABEL) && object.isLiteral()) {
+                    removals.add(new Removal(graph, subject, object));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void begin(TxnType type) {
+        begin(TxnType.convert(type));
+        if (isInWriteTransaction()) {
+            removals.clear();
+        }
+    }
+
+    @Override
+    public void commit() {
+        if (!isInWriteTransaction()) {
+            super.commit();
+            return;
+        }
+        // A label can be removed and added again within the same transaction, e.g. when a collection is recreated
+        var removed = removals.stream()
+                .filter(r -> !contains(r.graph, r.subject, LABEL, r.label)
+                        || !contains(r.graph, r.subject, TYPE, COLLECTION))
+                .toList();
+        removals.clear();
+        super.commit();
+        removed.forEach(r -> subjectsByName.computeIfPresent(key(r.label), (name, subjects) -> {
+            subjects.remove(r.subject);
+            return subjects.isEmpty() ? null : subjects;
+        }));
+    }
+
+    @Override
+    public void abort() {
+        var write = isInWriteTransaction();
+        super.abort();
+        if (write) {
+            removals.clear();
+        }
+    }
+
+    private void add(Node subject, Node label) {
+        if (label.isLiteral()) {
+            subjectsByName.compute(key(label), (name, subjects) -> {
+                var result = subjects != null ? subjects : ConcurrentHashMap.<Node>newKeySet();
+                result.add(subject);
+                return result;
+            });
+        }
+    }
+
+    private boolean isInWriteTransaction() {
+        return transactionMode() == ReadWrite.WRITE;
+    }
+
+    private static String key(Node label) {
+        return key(label.getLiteralLexicalForm());
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private record Removal(Node graph, Node subject, Node label) {}
+}
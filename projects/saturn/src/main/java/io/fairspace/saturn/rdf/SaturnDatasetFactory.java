@@ -29,8 +29,8 @@ public class SaturnDatasetFactory {
      * The original TDB2 dataset graph, which in fact consists of a number of
      * wrappers itself (Jena uses wrappers everywhere),
      * is wrapped with a number of wrapper classes, each adding a new feature.
-     * Currently it adds transaction logging and applies default vocabulary if
-     * needed.
+     * Currently it adds transaction logging, keeps track of collection names,
+     * reports changed predicates and applies default vocabulary if needed.
      */
     public static Dataset connect(
             ViewsProperties viewsProperties,
@@ -60,6 +60,12 @@ public class SaturnDatasetFactory {
         // Add transaction log
         dsg = new TxnLogDatasetGraph(dsg, txnLog);
 
+        // Add collection name index
+        dsg = new CollectionNameIndex(dsg);
+
+        // Report predicates changed by committed transactions
+        dsg = new ChangedPredicatesDatasetGraph(dsg);
+
         TypeMapper.getInstance().registerDatatype(MARKDOWN_DATA_TYPE);
 
         return DatasetFactory.wrap(dsg);
@@ -32,6 +32,14 @@ public class FilteredDatasetGraph extends DatasetGraphFilteredView {
         permissionCheckEnabled.set(true);
     }
 
+    /**
+     * The check is disabled per thread, so work handed over to other threads
+     * needs to disable it there as well.
+     */
+    public static boolean isQuadPermissionCheckEnabled() {
+        return permissionCheckEnabled.get();
+    }
+
     protected static boolean isAllowedToReadMetadata(Dataset ds, MetadataPermissions permissions, Quad quad) {
         boolean allowedToReadMetadata = quad.isDefaultGraph();
         if (allowedToReadMetadata && permissionCheckEnabled.get()) {
@@ -7,22 +7,35 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.pivovarit.function.ThrowingFunction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.JenaTransactionException;
 import org.apache.jena.system.Txn;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import io.fairspace.saturn.config.properties.JenaProperties;
+
 import static io.fairspace.saturn.auth.RequestContext.getCurrentRequest;
 import static io.fairspace.saturn.auth.RequestContext.getCurrentUserStringUri;
 import static io.fairspace.saturn.auth.RequestContext.setCurrentRequest;
 import static io.fairspace.saturn.auth.RequestContext.setCurrentUserStringUri;
 
+import static java.lang.System.nanoTime;
 import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @Component
 @ConditionalOnProperty(
@@ -33,27 +46,55 @@ import static java.lang.Thread.currentThread;
 public class BulkTransactions extends BaseTransactions {
     private final LinkedBlockingQueue<Task<?, ?>> queue = new LinkedBlockingQueue<>();
     private static final AtomicInteger threadCounter = new AtomicInteger();
-    private final Thread worker = new Thread(
-            () -> {
-                while (true) {
-                    var tasks = new ArrayList<Task<?, ?>>();
-                    try {
-                        tasks.add(queue.take());
-                    } catch (InterruptedException e) {
-                        return;
-                    }
-                    queue.drainTo(tasks);
+    private final Thread worker =
+            new Thread(this::processBatches, "Batch transaction processor " + threadCounter.incrementAndGet());
+    private final int maxBatchSize;
+    private final long maxBatchWaitNanos;
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+    private final Timer executeTimer;
 
-                    while (!tryExecute(tasks))
-                        ;
+    public BulkTransactions(Dataset ds) {
+        this(ds, Integer.MAX_VALUE, 0, Metrics.globalRegistry);
+    }
 
-                    tasks.forEach(Task::completed); // mark all tasks as committed
-                }
-            },
-            "Batch transaction processor " + threadCounter.incrementAndGet());
+    @Autowired
+    public BulkTransactions(
+            @Qualifier("dataset") Dataset ds, JenaProperties jenaProperties, MeterRegistry meterRegistry) {
+        this(
+                ds,
+                jenaProperties.getBulkTransactionsMaxBatchSize(),
+                jenaProperties.getBulkTransactionsMaxBatchWait(),
+                meterRegistry);
+    }
 
-    public BulkTransactions(@Qualifier("dataset") Dataset ds) {
+    /**
+     * @param maxBatchSize      the maximum number of tasks executed in one write transaction
+     * @param maxBatchWaitMillis how long to wait for more tasks to arrive before executing a batch which is not full,
+     *                          0 to execute whatever is queued immediately
+     */
+    public BulkTransactions(Dataset ds, int maxBatchSize, long maxBatchWaitMillis, MeterRegistry meterRegistry) {
         super(ds);
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchWaitNanos = MILLISECONDS.toNanos(maxBatchWaitMillis);
+
+        Gauge.builder("saturn.transactions.queue.size", queue, LinkedBlockingQueue::size)
+                .description("Number of write tasks waiting for a transaction")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("saturn.transactions.batch.size")
+                .description("Number of write tasks executed in one transaction")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("saturn.transactions.task.wait")
+                .description("Time a write task spends in the queue")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        executeTimer = Timer.builder("saturn.transactions.task.execute")
+                .description("Time needed to execute a write task")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
 
         worker.start();
     }
@@ -68,7 +109,7 @@ public class BulkTransactions extends BaseTransactions {
                 throw new JenaTransactionException("Can't promote to a write transaction");
             }
             var currentUser = getCurrentUserStringUri().orElse(null);
-            var task = new Task<>(getCurrentRequest(), currentUser, job);
+            var task = new Task<>(getCurrentRequest(), currentUser, SecurityContextHolder.getContext(), job);
 
             queue.offer(task);
             return task.get();
@@ -77,24 +118,71 @@ public class BulkTransactions extends BaseTransactions {
         }
     }
 
-    private boolean tryExecute(List<Task<?, ?>> tasks) {
-        if (tasks.isEmpty()) {
-            return true;
+    private void processBatches() {
+        while (true) {
+            var tasks = new ArrayList<Task<?, ?>>();
+            try {
+                tasks.add(queue.take());
+                queue.drainTo(tasks, maxBatchSize - tasks.size());
+                if (maxBatchWaitNanos > 0) {
+                    var deadline = nanoTime() + maxBatchWaitNanos;
+                    while (tasks.size() < maxBatchSize) {
+                        var task = queue.poll(deadline - nanoTime(), NANOSECONDS);
+                        if (task == null) {
+                            break;
+                        }
+                        tasks.add(task);
+                        queue.drainTo(tasks, maxBatchSize - tasks.size());
+                    }
+                }
+            } catch (InterruptedException e) {
+                tasks.forEach(task -> task.failed(e));
+                return;
+            }
+
+            batchSize.record(tasks.size());
+            var now = nanoTime();
+            tasks.forEach(task -> waitTimer.record(now - task.queuedAt, NANOSECONDS));
+
+            execute(tasks);
+        }
+    }
+
+    /**
+     * Executes the tasks in as few write transactions as possible.
+     * When a task fails, the transaction is aborted and only the failed task is dropped:
+     * the tasks before it have already succeeded once and are committed in a separate transaction,
+     * the tasks after it continue in a new batch. This way every task is executed at most twice,
+     * regardless of the number of failed tasks in the batch.
+     */
+    private void execute(List<Task<?, ?>> tasks) {
+        var remaining = tasks;
+        while (!remaining.isEmpty()) {
+            var failed = tryExecute(remaining);
+            if (failed < 0) {
+                remaining.forEach(Task::completed); // mark all tasks as committed
+                return;
+            }
+            remaining.get(failed).completed(); // task failed, no need to wait for other tasks
+            execute(remaining.subList(0, failed));
+            remaining = remaining.subList(failed + 1, remaining.size());
         }
+    }
 
+    /**
+     * @return -1 if all tasks were committed, otherwise the index of the first failed task
+     */
+    private int tryExecute(List<Task<?, ?>> tasks) {
         return Txn.calculateWrite(ds, () -> {
-            for (var it = tasks.iterator(); it.hasNext(); ) {
-                var task = it.next();
-                if (!task.perform(ds.getDefaultModel())) {
+            for (var i = 0; i < tasks.size(); i++) {
+                if (!tasks.get(i).perform(ds.getDefaultModel(), executeTimer)) {
                     ds.abort();
                 }
                 if (!ds.isInTransaction()) {
-                    it.remove();
-                    task.completed(); // task failed, no need to wait for other tasks
-                    return false;
+                    return i;
                 }
             }
-            return true;
+            return -1;
         });
     }
 
@@ -116,20 +204,30 @@ public class BulkTransactions extends BaseTransactions {
         private final CountDownLatch canBeRead = new CountDownLatch(1);
         private final HttpServletRequest request;
         private final String userUri;
+        private final SecurityContext securityContext;
         private final ThrowingFunction<? super Model, R, E> job;
+        private final long queuedAt = nanoTime();
         private R result;
         private Throwable error;
 
-        Task(HttpServletRequest request, String userUri, ThrowingFunction<? super Model, R, E> job) {
+        Task(
+                HttpServletRequest request,
+                String userUri,
+                SecurityContext securityContext,
+                ThrowingFunction<? super Model, R, E> job) {
             this.request = request;
             this.userUri = userUri;
+            this.securityContext = securityContext;
             this.job = job;
         }
 
-        boolean perform(Model model) {
+        boolean perform(Model model, Timer timer) {
+            var start = nanoTime();
             try {
                 setCurrentRequest(request);
                 setCurrentUserStringUri(userUri); // setting for the worker's thread
+                // the claims of the task's user end up in the transaction log and the audit log
+                SecurityContextHolder.setContext(securityContext);
 
                 result = job.apply(model);
                 error = null;
@@ -140,9 +238,17 @@ public class BulkTransactions extends BaseTransactions {
                 return false;
             } finally {
                 setCurrentRequest(null);
+                SecurityContextHolder.clearContext();
+                timer.record(nanoTime() - start, NANOSECONDS);
             }
         }
 
+        void failed(Throwable e) {
+            result = null;
+            error = e;
+            completed();
+        }
+
         // Either committed or failed
         void completed() {
             canBeRead.countDown();
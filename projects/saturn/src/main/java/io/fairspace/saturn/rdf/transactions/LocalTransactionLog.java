@@ -2,9 +2,13 @@ package io.fairspace.saturn.rdf.transactions;
 
 import java.io.*;
 
+import lombok.extern.log4j.Log4j2;
 import org.apache.jena.graph.Node;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.move;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
 import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 
 /**
@@ -27,7 +31,11 @@ import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
  *   chapter-1001
  *     tx-1000001
  *     ...
+ * <p>
+ * The number of committed transactions is also stored in a checkpoint file,
+ * so that the size of a large log can be determined without listing its directories.
  */
+@Log4j2
 public class LocalTransactionLog implements TransactionLog {
     private static final int CHAPTERS_PER_VOLUME = 1000;
     private static final int RECORDS_PER_CHAPTER = 1000;
@@ -35,10 +43,13 @@ public class LocalTransactionLog implements TransactionLog {
     private static final String CHAPTER_PREFIX = "chapter-";
     private static final String RECORD_PREFIX = "tx-";
     private static final String CURRENT_TRANSACTION_FILE_NAME = "current";
+    private static final String CHECKPOINT_FILE_NAME = "checkpoint";
 
     private final File directory;
     private final TransactionCodec codec;
     private final File currentTransactionFile;
+    private final File checkpointFile;
+    private final File newCheckpointFile;
     private long count;
     private OutputStream outputStream;
     private TransactionListener writingListener;
@@ -47,10 +58,20 @@ public class LocalTransactionLog implements TransactionLog {
         this.directory = directory;
         this.codec = codec;
         this.currentTransactionFile = new File(directory, CURRENT_TRANSACTION_FILE_NAME);
+        this.checkpointFile = new File(directory, CHECKPOINT_FILE_NAME);
+        this.newCheckpointFile = new File(directory, CHECKPOINT_FILE_NAME + ".new");
 
         directory.mkdirs();
 
-        count = numberOfFiles();
+        count = readCheckpoint();
+        if (count < 0) {
+            count = numberOfFiles();
+            try {
+                writeCheckpoint();
+            } catch (IOException e) {
+                log.warn("Cannot write the transaction log checkpoint", e);
+            }
+        }
     }
 
     @Override
@@ -84,6 +105,8 @@ public class LocalTransactionLog implements TransactionLog {
         count++;
         writingListener = null;
         outputStream = null;
+        // The transaction is logged at this point, a failure to update the checkpoint must not abort it
+        updateCheckpoint();
     }
 
     @Override
@@ -107,6 +130,51 @@ public class LocalTransactionLog implements TransactionLog {
         }
     }
 
+    /**
+     * @return the number of transactions stored in the checkpoint file,
+     * or -1 if there is no checkpoint or it doesn't match the last chapter of the log
+     */
+    private long readCheckpoint() {
+        if (!checkpointFile.exists()) {
+            return -1;
+        }
+        long checkpoint;
+        try {
+            checkpoint = Long.parseLong(readString(checkpointFile.toPath(), UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Cannot read the transaction log checkpoint", e);
+            return -1;
+        }
+        // Only the last chapter is checked: a transaction committed after the checkpoint
+        // was written would be the next record, either in the same chapter or in a new one
+        if (checkpoint < 0 || path(checkpoint).exists()) {
+            return -1;
+        }
+        if (checkpoint > 0) {
+            var lastRecord = path(checkpoint - 1);
+            var recordsInChapter = childCount(lastRecord.getParentFile(), RECORD_PREFIX);
+            if (!lastRecord.exists() || recordsInChapter != (checkpoint - 1) % RECORDS_PER_CHAPTER + 1) {
+                return -1;
+            }
+        }
+        return checkpoint;
+    }
+
+    private void updateCheckpoint() {
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            log.warn("Cannot update the transaction log checkpoint, the log size will be recounted on startup", e);
+            // An outdated checkpoint is ignored on startup anyway, removing it just avoids checking it
+            checkpointFile.delete();
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        writeString(newCheckpointFile.toPath(), Long.toString(count), UTF_8);
+        move(newCheckpointFile.toPath(), checkpointFile.toPath(), ATOMIC_MOVE);
+    }
+
     private int numberOfFiles() {
         var volumeCount = childCount(directory, VOLUME_PREFIX);
         if (volumeCount == 0) {
@@ -132,11 +200,16 @@ public class LocalTransactionLog implements TransactionLog {
     }
 
     private File file(long transactionNumber) {
+        var file = path(transactionNumber);
+        file.getParentFile().mkdirs();
+        return file;
+    }
+
+    private File path(long transactionNumber) {
         var volumeNumber = transactionNumber / CHAPTERS_PER_VOLUME / RECORDS_PER_CHAPTER + 1;
         var volume = new File(directory, VOLUME_PREFIX + volumeNumber);
         var chapterNumber = transactionNumber / RECORDS_PER_CHAPTER + 1;
         var chapter = new File(volume, CHAPTER_PREFIX + chapterNumber);
-        chapter.mkdirs();
         return new File(chapter, RECORD_PREFIX + (transactionNumber + 1));
     }
 }
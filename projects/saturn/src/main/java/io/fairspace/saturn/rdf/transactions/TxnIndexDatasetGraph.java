@@ -4,13 +4,13 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.jena.graph.Node;
 import org.apache.jena.query.ReadWrite;
 import org.apache.jena.query.TxnType;
 import org.apache.jena.query.text.changes.TextQuadAction;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.system.Txn;
 
 import io.fairspace.saturn.config.properties.ViewsProperties;
 import io.fairspace.saturn.rdf.AbstractChangesAwareDatasetGraph;
@@ -30,6 +30,9 @@ public class TxnIndexDatasetGraph extends AbstractChangesAwareDatasetGraph {
     // If many write transactions can be active simultaneously, this set needs to be
     // tied to the active thread.
     private final Set<Node> updatedSubjects = new HashSet<>();
+    private final Object viewUpdateLock = new Object();
+    // Subjects of committed transactions whose views could not be updated, guarded by the view update lock
+    private final Set<Node> failedSubjects = new HashSet<>();
 
     public TxnIndexDatasetGraph(
             ViewsProperties viewsProperties,
@@ -44,7 +47,19 @@ public class TxnIndexDatasetGraph extends AbstractChangesAwareDatasetGraph {
     }
 
     private void markSubject(Node subject) {
-        updatedSubjects.add(subject);
+        if (!isExtraStorageSubject(subject) && isViewsUpdateRequested()) {
+            updatedSubjects.add(subject);
+        }
+    }
+
+    /**
+     * Whether the current user asked for the views to be updated.
+     * It is checked per change rather than on commit, because a single transaction may combine
+     * writes of several users (see {@link BulkTransactions}), each with their own preference.
+     */
+    private boolean isViewsUpdateRequested() {
+        return dsg.getContext()
+                .get(currentUserAsSymbol(), Boolean.FALSE); // false by default, should be set explicitly to switch it off
     }
 
     /**
@@ -69,47 +84,60 @@ public class TxnIndexDatasetGraph extends AbstractChangesAwareDatasetGraph {
         }
     }
 
-    @SneakyThrows
+    /**
+     * Commits the transaction and then updates the views of the subjects changed by it.
+     * The views are updated in a separate read transaction after the commit,
+     * so that other writers don't have to wait for the view store.
+     * The committing thread still waits for the update, so that a client reads its own changes in the views.
+     * As the transaction is durable at that point, a failing update doesn't fail the commit:
+     * the subjects are updated again with the next transaction, or when the views are reindexed.
+     */
     @Override
     public void commit() {
-        if (isInWriteTransaction()) {
-            if (isExtraStorageTransaction()) {
-                updatedSubjects.clear();
-            } else {
-                var sessionKey = currentUserAsSymbol();
-                var doViewsUpdate = dsg.getContext()
-                        .get(sessionKey, Boolean.FALSE); // false by default, should be set explicitly to switch it off
-                if (doViewsUpdate) {
-                    log.info("Commit {} updated subjects", updatedSubjects.size());
-                    var start = new Date().getTime();
-                    try (var viewStoreClient = viewStoreClientFactory.build();
-                            var viewUpdater = new ViewUpdater(viewsProperties, viewStoreClient, dsg, publicUrl)) {
-                        updatedSubjects.forEach(viewUpdater::updateSubject);
-                        viewUpdater.commit();
-                        log.debug(
-                                "Updating {} subjects took {}ms", updatedSubjects.size(), new Date().getTime() - start);
-                    } catch (Exception e) {
-                        log.error(
-                                "Updating {} subjects failed after {}ms",
-                                updatedSubjects.size(),
-                                new Date().getTime() - start,
-                                e);
-                        throw e;
-                    } finally {
-                        updatedSubjects.clear();
-                    }
-                } else {
-                    log.debug("Skipping views update");
-                }
-            }
+        if (!isInWriteTransaction()) {
+            super.commit();
+            return;
         }
+        // The next write transaction may start as soon as this one is committed
+        var subjects = new HashSet<>(updatedSubjects);
+        updatedSubjects.clear();
         super.commit();
+        updateViews(subjects);
+    }
+
+    private void updateViews(Set<Node> subjects) {
+        // View updates are applied one at a time, so that each of them reads
+        // a state of the database at least as recent as the previous one
+        synchronized (viewUpdateLock) {
+            subjects.addAll(failedSubjects);
+            if (subjects.isEmpty()) {
+                log.debug("Skipping views update");
+                return;
+            }
+            log.info("Commit {} updated subjects", subjects.size());
+            var start = new Date().getTime();
+            try (var viewStoreClient = viewStoreClientFactory.build();
+                    var viewUpdater = new ViewUpdater(viewsProperties, viewStoreClient, dsg, publicUrl)) {
+                Txn.executeRead(dsg, () -> subjects.forEach(viewUpdater::updateSubject));
+                viewUpdater.commit();
+                log.debug("Updating {} subjects took {}ms", subjects.size(), new Date().getTime() - start);
+                failedSubjects.clear();
+            } catch (Exception e) {
+                log.error(
+                        "Updating {} subjects failed after {}ms, retrying with the next transaction",
+                        subjects.size(),
+                        new Date().getTime() - start,
+                        e);
+                failedSubjects.addAll(subjects);
+            }
+        }
     }
 
     @Override
     public void abort() {
+        var write = isInWriteTransaction();
         super.abort();
-        if (isInWriteTransaction()) {
+        if (write) {
             log.debug("Aborting transaction");
             updatedSubjects.clear();
         }
@@ -119,8 +147,7 @@ public class TxnIndexDatasetGraph extends AbstractChangesAwareDatasetGraph {
         return transactionMode() == ReadWrite.WRITE;
     }
 
-    private boolean isExtraStorageTransaction() {
-        return updatedSubjects.stream()
-                .anyMatch(r -> r.isURI() && r.getURI().startsWith(publicUrl + "/api/extra-storage"));
+    private boolean isExtraStorageSubject(Node subject) {
+        return subject.isURI() && subject.getURI().startsWith(publicUrl + "/api/extra-storage");
     }
 }
@@ -1,10 +1,12 @@
 package io.fairspace.saturn.services.maintenance;
 
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
@@ -27,6 +29,8 @@ import io.fairspace.saturn.services.users.UserService;
 import io.fairspace.saturn.services.views.ViewService;
 import io.fairspace.saturn.services.views.ViewStoreClientFactory;
 import io.fairspace.saturn.services.views.ViewUpdater;
+import io.fairspace.saturn.webdav.blobstore.BlobStore;
+import io.fairspace.saturn.webdav.blobstore.LocalBlobStore;
 
 @Log4j2
 @Service
@@ -44,6 +48,8 @@ public class MaintenanceService {
     private final ViewStoreClientFactory viewStoreClientFactory;
     private final ViewService viewService;
     private final String publicUrl;
+    private final BlobStore blobStore;
+    private final BlobStore extraBlobStore;
 
     public MaintenanceService(
             ViewsProperties viewsProperties,
@@ -51,13 +57,17 @@ public class MaintenanceService {
             @Qualifier("dataset") @NonNull Dataset dataset,
             @Nullable ViewStoreClientFactory viewStoreClientFactory,
             ViewService viewService,
-            @Value("${application.publicUrl}") String publicUrl) {
+            @Value("${application.publicUrl}") String publicUrl,
+            @Qualifier("blobStore") BlobStore blobStore,
+            @Qualifier("extraBlobStore") @Nullable BlobStore extraBlobStore) {
         this.viewsProperties = viewsProperties;
         this.userService = userService;
         this.dataset = dataset;
         this.viewStoreClientFactory = viewStoreClientFactory;
         this.viewService = viewService;
         this.publicUrl = publicUrl;
+        this.blobStore = blobStore;
+        this.extraBlobStore = extraBlobStore;
     }
 
     public boolean disabled() {
@@ -114,6 +124,38 @@ public class MaintenanceService {
         });
     }
 
+    public synchronized void startBlobStoreMigrationTask() {
+        if (!userService.currentUser().isAdmin()) {
+            throw new AccessDeniedException();
+        }
+        // Both the regular and the extra storage blob stores are migrated, if they are stored locally
+        var localBlobStores = Stream.of(blobStore, extraBlobStore)
+                .filter(LocalBlobStore.class::isInstance)
+                .map(LocalBlobStore.class::cast)
+                .toList();
+        if (localBlobStores.isEmpty()) {
+            throw new NotAvailableException(SERVICE_NOT_AVAILABLE);
+        }
+        if (active()) {
+            log.info(MAINTENANCE_IS_IN_PROGRESS);
+            throw new ConflictException(MAINTENANCE_IS_IN_PROGRESS);
+        }
+
+        threadpool.submit(() -> {
+            log.info("Migrating blob store to the sharded layout started");
+            try {
+                var count = 0L;
+                for (var localBlobStore : localBlobStores) {
+                    count += localBlobStore.migrateToShardedLayout();
+                }
+                log.info("Migrating blob store to the sharded layout finished, {} blobs moved", count);
+            } catch (IOException e) {
+                log.error("Error migrating blob store", e);
+                throw new RuntimeException("Error migrating blob store", e);
+            }
+        });
+    }
+
     /**
      * Only use this method in a secure and synchonisized way, see 'recreateIndex()'
      */
@@ -49,6 +49,10 @@ public class MetadataPermissions {
         return userService.currentUser().isCanViewPublicMetadata();
     }
 
+    public boolean canIngestMetadata() {
+        return userService.currentUser().isAdmin();
+    }
+
     public boolean canWriteMetadata(Resource resource) {
         if (userService.currentUser().isAdmin()) {
             return true;
@@ -1,17 +1,25 @@
 package io.fairspace.saturn.services.metadata;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.jena.graph.GraphUtil;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFBase;
 import org.apache.jena.shacl.vocabulary.SHACLM;
+import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.vocabulary.RDF;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -27,6 +35,7 @@ import static io.fairspace.saturn.audit.Audit.audit;
 import static io.fairspace.saturn.auth.RequestContext.getUserURI;
 import static io.fairspace.saturn.rdf.ModelUtils.EMPTY_MODEL;
 import static io.fairspace.saturn.rdf.ModelUtils.trimLabels;
+import static io.fairspace.saturn.rdf.ModelUtils.unionView;
 import static io.fairspace.saturn.rdf.ModelUtils.updatedView;
 import static io.fairspace.saturn.rdf.SparqlUtils.toXSDDateTimeLiteral;
 import static io.fairspace.saturn.services.users.UserService.currentUserAsSymbol;
@@ -143,6 +152,84 @@ public class MetadataService {
         logUpdates(update(EMPTY_MODEL, model, doViewsUpdate));
     }
 
+    /**
+     * Adds a large amount of metadata, read from the stream in chunks of {@code chunkSize} statements.
+     * <p>
+     * Unlike {@link #put}, chunks bypass the regular update path: labels are trimmed, but only the creation of
+     * new subjects is recorded. Each chunk is validated against a union view of the database and the chunk, and is
+     * then added to the dataset in its own write transaction, which is logged like any other.
+     * So the whole upload never has to be held in memory, and chunks are committed independently:
+     * if chunk N is rejected, chunks 1..N-1 remain in the database and the statements after it are not read.
+     * Only the default graph can be ingested, statements in a named graph are rejected.
+     * Only available for administrators.
+     *
+     * @param in        the serialised statements
+     * @param lang      the serialisation format, N-Triples or N-Quads
+     * @param chunkSize the number of statements per transaction
+     * @return the number of statements ingested
+     */
+    public long ingest(InputStream in, Lang lang, int chunkSize, Boolean doViewsUpdate) {
+        if (!permissions.canIngestMetadata()) {
+            throw new AccessDeniedException();
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        var sink = new StreamRDFBase() {
+            private Model chunk = createDefaultModel();
+            private long count;
+
+            @Override
+            public void triple(Triple triple) {
+                chunk.getGraph().add(triple);
+                if (chunk.size() >= chunkSize) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void quad(Quad quad) {
+                if (!quad.isDefaultGraph()) {
+                    throw new IllegalArgumentException("Named graphs are not supported: " + quad.getGraph());
+                }
+                triple(quad.asTriple());
+            }
+
+            private void flush() {
+                if (!chunk.isEmpty()) {
+                    ingestChunk(chunk, doViewsUpdate);
+                    count += chunk.size();
+                    audit("METADATA_INGESTED", "statements", count);
+                    chunk = createDefaultModel();
+                }
+            }
+        };
+        // The parser calls finish() even when parsing fails, so the last chunk is only flushed on success
+        RDFParser.source(in).lang(lang).parse(sink);
+        sink.flush();
+        return sink.count;
+    }
+
+    private void ingestChunk(Model chunk, Boolean doViewsUpdate) {
+        trimLabels(chunk);
+        transactions.setContextValue(currentUserAsSymbol(), doViewsUpdate);
+        transactions.executeWrite(model -> {
+            runValidators(model, unionView(model, chunk), EMPTY_MODEL, chunk);
+
+            var created = chunk.listSubjects()
+                    .filterKeep(RDFNode::isURIResource)
+                    .filterDrop(s -> model.getGraph().contains(s.asNode(), Node.ANY, Node.ANY))
+                    .toList();
+
+            GraphUtil.addInto(model.getGraph(), chunk.getGraph());
+
+            var user = model.wrapAsResource(getUserURI());
+            var now = toXSDDateTimeLiteral(Instant.now());
+            created.forEach(s -> model.add(s, FS.createdBy, user).add(s, FS.dateCreated, now));
+        });
+    }
+
     /**
      * Marks an entity as deleted
      *
@@ -254,6 +341,10 @@ public class MetadataService {
                     throw new AccessDeniedException(s.getURI());
                 });
 
+        runValidators(before, after, modelToRemove, modelToAdd);
+    }
+
+    private void runValidators(Model before, Model after, Model modelToRemove, Model modelToAdd) {
         var violations = new LinkedHashSet<Violation>();
         validator.validate(
                 before,
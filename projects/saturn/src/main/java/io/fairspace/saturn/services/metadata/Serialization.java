@@ -1,13 +1,18 @@
 package io.fairspace.saturn.services.metadata;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFWriter;
 
 import io.fairspace.saturn.util.UnsupportedMediaTypeException;
 
@@ -20,6 +25,12 @@ public class Serialization {
     private static final List<String> SUPPORTED_MIMETYPES =
             SUPPORTED_FORMATS.stream().map(f -> f.getLang().getHeaderString()).collect(Collectors.toList());
 
+    // Line-based formats, which can be parsed and processed in chunks
+    private static final List<Lang> STREAMING_LANGS = List.of(Lang.NTRIPLES, Lang.NQUADS);
+
+    // Number of triples from which Turtle output switches to the streaming writer
+    private static final long STREAMING_THRESHOLD = 100_000;
+
     public static Model deserialize(String body, String contentType) {
         var model = createDefaultModel();
         RDFDataMgr.read(
@@ -27,12 +38,41 @@ public class Serialization {
         return model;
     }
 
+    /**
+     * Parses the request body directly from the stream, without buffering it as a string first.
+     */
+    public static Model deserialize(InputStream body, String contentType) {
+        var model = createDefaultModel();
+        RDFParser.source(body).lang(getFormat(contentType).getLang()).parse(model.getGraph());
+        return model;
+    }
+
+    /**
+     * Writes the model directly to the stream. Large models are written to Turtle in the streaming
+     * "blocks" variant, as pretty-printed Turtle needs to analyse the whole graph before writing.
+     */
+    public static void serialize(Model model, RDFFormat format, OutputStream out) {
+        if (format == RDFFormat.TURTLE && model.size() > STREAMING_THRESHOLD) {
+            format = RDFFormat.TURTLE_BLOCKS;
+        }
+        RDFWriter.source(model).format(format).output(out);
+    }
+
     public static String serialize(Model model, RDFFormat format) {
         var writer = new StringWriter();
         RDFDataMgr.write(writer, model, format);
         return writer.toString();
     }
 
+    public static Lang getStreamingLang(String contentType) {
+        var type = contentType == null ? "" : contentType.split(";")[0].trim();
+        return STREAMING_LANGS.stream()
+                .filter(lang -> lang.getHeaderString().equals(type))
+                .findFirst()
+                .orElseThrow(() -> new UnsupportedMediaTypeException(
+                        STREAMING_LANGS.stream().map(Lang::getHeaderString).toList()));
+    }
+
     public static RDFFormat getFormat(String contentType) {
         if (contentType == null || contentType.isEmpty()) {
             return RDFFormat.TURTLE;
@@ -1,47 +1,103 @@
 package io.fairspace.saturn.services.metadata.validation;
 
-import org.apache.jena.graph.FrontsNode;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.engine.ValidationContext;
+import org.apache.jena.shacl.parser.Shape;
+import org.apache.jena.shacl.validation.VLib;
 import org.apache.jena.shacl.vocabulary.SHACL;
 import org.apache.jena.sparql.path.P_Link;
 import org.apache.jena.sparql.path.Path;
+import org.apache.jena.vocabulary.RDF;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
-import static org.apache.jena.shacl.validation.ValidationProc.plainValidationNode;
-
+/**
+ * Validates the changed subjects against the SHACL shapes of the vocabulary.
+ * All affected nodes are validated in a single validation context. For a subject whose type did not change,
+ * shapes with class or subjects-of targets consisting only of simple property paths are evaluated
+ * only if one of their paths or target predicates has been modified.
+ */
 @Component
 public class ShaclValidator extends VocabularyAwareValidator {
     private final Shapes shapes;
+    // Path and target predicates of the target shapes that can be skipped if none of these predicates changed
+    private final Map<Shape, Set<Node>> shapePredicates = new HashMap<>();
 
     public ShaclValidator(@Qualifier("vocabulary") Model vocabulary) {
         super(vocabulary);
         shapes = Shapes.parse(vocabulary);
+
+        for (var shape : shapes.getTargetShapes()) {
+            var predicates = new HashSet<Node>();
+            var simplePaths = shape.getConstraints().isEmpty();
+            for (var target : shape.getTargets()) {
+                switch (target.getTargetType()) {
+                    // Class targets are covered by the type check in validate
+                    case targetClass, implicitClass -> {}
+                    // A node becomes a focus node by getting the target predicate
+                    case targetSubjectsOf -> predicates.add(target.getObject());
+                    // Other targets do not depend on the predicates of the node, these shapes are always evaluated
+                    default -> simplePaths = false;
+                }
+            }
+            for (var propertyShape : shape.getPropertyShapes()) {
+                if (propertyShape.getPath() instanceof P_Link link) {
+                    predicates.add(link.getNode());
+                } else {
+                    simplePaths = false;
+                }
+            }
+            if (simplePaths) {
+                shapePredicates.put(shape, predicates);
+            }
+        }
     }
 
     @Override
     public void validate(Model before, Model after, Model removed, Model added, ViolationHandler violationHandler) {
-        var affected = removed.listSubjects()
-                .filterKeep(s -> after.contains(s, null))
-                .andThen(added.listSubjects())
-                .mapWith(FrontsNode::asNode)
-                .toSet();
+        var changedPredicates = new HashMap<Node, Set<Node>>();
+        removed.listStatements()
+                .filterKeep(stmt -> after.contains(stmt.getSubject(), null))
+                .andThen(added.listStatements())
+                .forEachRemaining(stmt -> changedPredicates
+                        .computeIfAbsent(stmt.getSubject().asNode(), s -> new HashSet<>())
+                        .add(stmt.getPredicate().asNode()));
 
-        if (affected.isEmpty()) {
+        if (changedPredicates.isEmpty()) {
             return;
         }
 
         var data = after.getGraph();
+        var context = ValidationContext.create(shapes, data);
+
+        changedPredicates.forEach((node, predicates) -> {
+            var typeChanged = predicates.contains(RDF.type.asNode());
+            for (var shape : shapes.getTargetShapes()) {
+                if ((typeChanged || isAffected(shape, predicates)) && VLib.isFocusNode(shape, node, data)) {
+                    VLib.validateShape(context, data, shape, node);
+                }
+            }
+        });
+
+        context.generateReport().getEntries().forEach(entry -> {
+            if (entry.severity().level() == SHACL.Violation) {
+                violationHandler.onViolation(
+                        entry.message(), entry.focusNode(), pathToNode(entry.resultPath()), entry.value());
+            }
+        });
+    }
 
-        affected.forEach(
-                node -> plainValidationNode(shapes, data, node).getEntries().forEach(entry -> {
-                    if (entry.severity().level() == SHACL.Violation) {
-                        violationHandler.onViolation(
-                                entry.message(), entry.focusNode(), pathToNode(entry.resultPath()), entry.value());
-                    }
-                }));
+    private boolean isAffected(Shape shape, Set<Node> changedPredicates) {
+        var predicates = shapePredicates.get(shape);
+        return predicates == null || !Collections.disjoint(predicates, changedPredicates);
     }
 
     private static Node pathToNode(Path path) {
@@ -1,6 +1,12 @@
 package io.fairspace.saturn.services.metadata.validation;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 import org.springframework.stereotype.Component;
@@ -11,20 +17,71 @@ import static org.apache.jena.rdf.model.ResourceFactory.createPlainLiteral;
 
 @Component
 public class UniqueLabelValidator implements MetadataRequestValidator {
+    // From this number of labelled resources of the same type on, the labels of all instances of the type
+    // are collected in one pass instead of being looked up one by one
+    static final int BATCH_THRESHOLD = 32;
+
     @Override
     public void validate(Model before, Model after, Model removed, Model added, ViolationHandler violationHandler) {
+        var resourcesByType = new HashMap<Resource, List<Resource>>();
+        var untyped = new ArrayList<Resource>();
         added.listSubjectsWithProperty(RDFS.label).forEachRemaining(subject -> {
             var resource = subject.inModel(after);
             var type = resource.getPropertyResourceValue(RDF.type);
-            var label = resource.getProperty(RDFS.label).getString();
-            var conflictingResourceExists = after.listSubjectsWithProperty(RDFS.label, label)
-                    .filterDrop(subject::equals)
-                    .filterKeep(res -> res.hasProperty(RDF.type, type))
-                    .filterDrop(res -> res.hasProperty(FS.dateDeleted))
-                    .hasNext();
-            if (conflictingResourceExists) {
-                violationHandler.onViolation("Duplicate label", resource, RDFS.label, createPlainLiteral(label));
+            if (type == null) {
+                untyped.add(resource);
+            } else {
+                resourcesByType
+                        .computeIfAbsent(type, t -> new ArrayList<>())
+                        .add(resource);
+            }
+        });
+
+        untyped.forEach(resource -> validateSingle(after, resource, null, violationHandler));
+
+        resourcesByType.forEach((type, resources) -> {
+            if (resources.size() < BATCH_THRESHOLD) {
+                resources.forEach(resource -> validateSingle(after, resource, type, violationHandler));
+                return;
             }
+            var labels = labelsOfType(after, type);
+            resources.forEach(resource -> {
+                var label = resource.getProperty(RDFS.label).getString();
+                var conflictingResourceExists = labels.getOrDefault(label, List.of()).stream()
+                        .anyMatch(res -> !res.equals(resource));
+                if (conflictingResourceExists) {
+                    violationHandler.onViolation("Duplicate label", resource, RDFS.label, createPlainLiteral(label));
+                }
+            });
         });
     }
+
+    private static void validateSingle(
+            Model after, Resource resource, Resource type, ViolationHandler violationHandler) {
+        var label = resource.getProperty(RDFS.label).getString();
+        var conflictingResourceExists = after.listSubjectsWithProperty(RDFS.label, label)
+                .filterDrop(resource::equals)
+                .filterKeep(res -> res.hasProperty(RDF.type, type))
+                .filterDrop(res -> res.hasProperty(FS.dateDeleted))
+                .hasNext();
+        if (conflictingResourceExists) {
+            violationHandler.onViolation("Duplicate label", resource, RDFS.label, createPlainLiteral(label));
+        }
+    }
+
+    /**
+     * Maps the plain labels of all non-deleted instances of a type to the instances carrying them.
+     */
+    private static Map<String, List<Resource>> labelsOfType(Model model, Resource type) {
+        var labels = new HashMap<String, List<Resource>>();
+        model.listSubjectsWithProperty(RDF.type, type)
+                .filterDrop(res -> res.hasProperty(FS.dateDeleted))
+                .forEachRemaining(res -> res.listProperties(RDFS.label)
+                        .filterKeep(stmt -> stmt.getObject().isLiteral()
+                                && stmt.getLiteral().getLanguage().isEmpty())
+                        .forEachRemaining(stmt -> labels.computeIfAbsent(
+                                        stmt.getLiteral().getLexicalForm(), l -> new ArrayList<>())
+                                .add(res)));
+        return labels;
+    }
 }
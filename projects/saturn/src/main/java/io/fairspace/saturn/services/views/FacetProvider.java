@@ -0,0 +1,25 @@
+package io.fairspace.saturn.services.views;
+
+import io.fairspace.saturn.config.properties.ViewsProperties.View;
+import io.fairspace.saturn.controller.dto.FacetDto;
+
+/**
+ * Computes the facet of a view column, i.e. the values or the range of values to filter on.
+ * Implemented using Sparql queries on the RDF database directly
+ * in {@link SparqlFacetProvider} and using a JDBC database connection
+ * in {@link ViewStoreReader}.
+ *
+ * Facets are cached by {@link ViewService} and shared by all users,
+ * so implementations must not restrict the results to what the current user has access to.
+ */
+public interface FacetProvider {
+    FacetDto getFacet(View view, View.Column column);
+
+    static String getFacetName(View view, View.Column column) {
+        return view.name + "_" + column.name;
+    }
+
+    static boolean isResourceTypeColumn(View view, View.Column column) {
+        return view.name.equalsIgnoreCase("Resource") && column.name.equalsIgnoreCase("type");
+    }
+}
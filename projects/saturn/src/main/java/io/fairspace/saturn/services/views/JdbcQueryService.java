@@ -1,17 +1,30 @@
 package io.fairspace.saturn.services.views;
 
+import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.milton.resource.CollectionResource;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
 
+import io.fairspace.saturn.config.properties.SearchProperties;
+import io.fairspace.saturn.config.properties.ViewDatabaseProperties;
 import io.fairspace.saturn.controller.dto.CountDto;
 import io.fairspace.saturn.controller.dto.ValueDto;
 import io.fairspace.saturn.controller.dto.ViewPageDto;
@@ -22,6 +35,7 @@ import io.fairspace.saturn.rdf.transactions.TxnIndexDatasetGraph;
 
 import static io.fairspace.saturn.webdav.PathUtils.getCollectionNameByUri;
 
+import static java.lang.Integer.max;
 import static java.lang.Integer.min;
 
 /**
@@ -33,16 +47,41 @@ import static java.lang.Integer.min;
  */
 @Log4j2
 public class JdbcQueryService implements QueryService {
-
     private final Transactions transactions;
     private final CollectionResource rootSubject;
     private final ViewStoreReader viewStoreReader;
+    private final SearchProperties searchProperties;
+    // Runs count queries concurrently with the page queries. At most half of the view database connections are used
+    // for counts, when all count threads are busy the count is run by the calling thread before the page query.
+    private final ExecutorService countExecutor;
+    // The longest a count may take: borrowing a connection, then an estimate and an exact count with their own timeouts
+    private final long countBudgetMillis;
 
     public JdbcQueryService(
-            Transactions transactions, CollectionResource rootSubject, ViewStoreReader viewStoreReader) {
+            Transactions transactions,
+            CollectionResource rootSubject,
+            ViewStoreReader viewStoreReader,
+            SearchProperties searchProperties,
+            ViewDatabaseProperties viewDatabaseProperties) {
         this.transactions = transactions;
         this.rootSubject = rootSubject;
         this.viewStoreReader = viewStoreReader;
+        this.searchProperties = searchProperties;
+        this.countBudgetMillis = viewDatabaseProperties.getConnectionTimeout()
+                + (searchProperties.getExactCountThreshold() > 0 ? 2L : 1L)
+                        * TimeUnit.SECONDS.toMillis(searchProperties.getCountRequestTimeout());
+        var countThreads = max(1, viewDatabaseProperties.getMaxPoolSize() / 2);
+        this.countExecutor = new ThreadPoolExecutor(
+                countThreads,
+                countThreads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("view-count-%d")
+                        .setDaemon(true)
+                        .build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     @SneakyThrows
@@ -82,15 +121,28 @@ public class JdbcQueryService implements QueryService {
             filters.addAll(request.getFilters());
         }
         applyCollectionsFilterIfRequired(request.getView(), filters);
+        // The count is computed concurrently with the page, so the response takes as long as the slower of the two
+        var countQuery = request.includeCounts() ? new CountQuery(request.getView(), filters) : null;
+        var count = countQuery != null ? countExecutor.submit(countQuery) : null;
         try {
             List<Map<String, Set<ValueDto>>> rows = viewStoreReader.retrieveRows(
                     request.getView(), filters, (page - 1) * size, size + 1, request.includeJoinedViews());
             var pageBuilder = ViewPageDto.builder()
                     .rows(rows.subList(0, min(size, rows.size())))
                     .hasNext(rows.size() > size);
-            if (request.includeCounts()) {
-                long count = viewStoreReader.countRows(request.getView(), filters);
-                pageBuilder = pageBuilder.totalCount(count).totalPages(count / size + ((count % size > 0) ? 1 : 0));
+            if (count != null) {
+                CountDto countDto;
+                try {
+                    countDto = awaitCount(count);
+                } catch (SQLTimeoutException e) {
+                    // The rows have been fetched already, only the count is missing
+                    return pageBuilder.timeout(true).build();
+                }
+                long totalCount = countDto.count();
+                pageBuilder = pageBuilder
+                        .totalCount(totalCount)
+                        .totalPages(totalCount / size + ((totalCount % size > 0) ? 1 : 0))
+                        .countEstimated(countDto.estimated());
             }
             return pageBuilder.build();
         } catch (SQLTimeoutException e) {
@@ -98,6 +150,65 @@ public class JdbcQueryService implements QueryService {
                     .rows(Collections.emptyList())
                     .timeout(true)
                     .build();
+        } finally {
+            // A count that is no longer needed is stopped, so that it releases its connection
+            if (count != null && !count.isDone()) {
+                count.cancel(false);
+                countQuery.cancel();
+            }
+        }
+    }
+
+    @SneakyThrows
+    private CountDto awaitCount(Future<CountDto> count) throws SQLTimeoutException {
+        try {
+            // The count statements time out by themselves, the margin covers the time spent between them
+            return searchProperties.getCountRequestTimeout() > 0
+                    ? count.get(countBudgetMillis + 1000L, TimeUnit.MILLISECONDS)
+                    : count.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException("The count query timed out", e);
+        }
+    }
+
+    /**
+     * A count query that can be cancelled from another thread.
+     * Interrupting the thread does not stop a running JDBC statement, so the statement itself is cancelled.
+     */
+    private class CountQuery implements Callable<CountDto> {
+        private final String view;
+        private final List<ViewFilter> filters;
+        private Statement statement;
+        private boolean cancelled;
+
+        CountQuery(String view, List<ViewFilter> filters) {
+            this.view = view;
+            this.filters = filters;
+        }
+
+        @Override
+        public CountDto call() throws SQLTimeoutException {
+            return viewStoreReader.countOrEstimateRows(view, filters, this::onExecute);
+        }
+
+        private synchronized void onExecute(Statement statement) throws SQLException {
+            if (cancelled) {
+                throw new SQLException("The count query was cancelled");
+            }
+            this.statement = statement;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    log.debug("Error cancelling the count query", e);
+                }
+            }
         }
     }
 
@@ -109,7 +220,7 @@ public class JdbcQueryService implements QueryService {
         }
         applyCollectionsFilterIfRequired(request.getView(), filters);
         try {
-            return new CountDto(viewStoreReader.countRows(request.getView(), filters), false);
+            return viewStoreReader.countOrEstimateRows(request.getView(), filters);
         } catch (SQLTimeoutException e) {
             return new CountDto(0, true);
         }
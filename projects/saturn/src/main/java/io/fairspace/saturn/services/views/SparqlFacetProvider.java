@@ -0,0 +1,162 @@
+package io.fairspace.saturn.services.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.datatypes.xsd.XSDDateTime;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.QuerySolutionMap;
+import org.apache.jena.rdf.model.Literal;
+
+import io.fairspace.saturn.config.properties.ViewsProperties.View;
+import io.fairspace.saturn.controller.dto.FacetDto;
+import io.fairspace.saturn.controller.dto.ValueDto;
+import io.fairspace.saturn.vocabulary.FS;
+
+import static io.fairspace.saturn.services.views.FacetProvider.getFacetName;
+import static io.fairspace.saturn.services.views.FacetProvider.isResourceTypeColumn;
+
+import static java.time.Instant.ofEpochMilli;
+import static java.util.Optional.ofNullable;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.system.Txn.calculateRead;
+
+/**
+ * Computes facets using Sparql queries on the RDF database,
+ * used when the view database is not configured.
+ */
+public class SparqlFacetProvider implements FacetProvider {
+    private static final Query VALUES_QUERY = QueryFactory.create(String.format(
+            """
+                    PREFIX fs: <%s>
+                    PREFIX rdfs:  <http://www.w3.org/2000/01/rdf-schema#>
+
+                    SELECT ?value ?label
+                    WHERE {
+                       ?value a ?type ; rdfs:label ?label .
+                       FILTER EXISTS {
+                          ?subject ?predicate ?value
+                          FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
+                       }
+                       FILTER NOT EXISTS { ?value fs:dateDeleted ?anyDateDeleted }
+                    } ORDER BY ?label
+                    """,
+            FS.NS));
+
+    private static final Query RESOURCE_TYPE_VALUES_QUERY = QueryFactory.create(String.format(
+            """
+                    PREFIX fs: <%s>
+                    SELECT ?value ?label
+                    WHERE {
+                       VALUES (?value ?label) {
+                          (fs:Collection "Collection")
+                          (fs:Directory "Directory")
+                          (fs:File "File")
+                       }
+                    }
+                    """,
+            FS.NS));
+
+    private static final Query BOUNDS_QUERY = QueryFactory.create(String.format(
+            """
+                    PREFIX fs: <%s>
+
+                    SELECT (MIN(?value) AS ?min) (MAX(?value) AS ?max)
+                    WHERE {
+                       ?subject ?predicate ?value
+                       FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
+                    }
+                    """,
+            FS.NS));
+
+    private static final Query BOOLEAN_VALUE_QUERY = QueryFactory.create(String.format(
+            """
+                    PREFIX fs: <%s>
+                    SELECT ?booleanValue
+                    WHERE {
+                       ?subject ?predicate ?booleanValue
+                       FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
+                    }
+                    """,
+            FS.NS));
+
+    private final Dataset ds;
+
+    public SparqlFacetProvider(Dataset ds) {
+        this.ds = ds;
+    }
+
+    @Override
+    public FacetDto getFacet(View view, View.Column column) {
+        return calculateRead(ds, () -> getFacetInfo(view, column));
+    }
+
+    private FacetDto getFacetInfo(View view, View.Column column) {
+        List<ValueDto> values = null;
+        Object min = null;
+        Object max = null;
+        Boolean booleanValue = null;
+
+        switch (column.type) {
+            case Term, TermSet -> {
+                var query = isResourceTypeColumn(view, column) ? RESOURCE_TYPE_VALUES_QUERY : VALUES_QUERY;
+                var binding = new QuerySolutionMap();
+                binding.add("type", createResource(column.rdfType));
+                binding.add("predicate", createResource(column.source));
+
+                values = new ArrayList<>();
+                try (var execution = QueryExecutionFactory.create(query, ds, binding)) {
+                    //noinspection NullableProblems
+                    for (var row : (Iterable<QuerySolution>) execution::execSelect) {
+                        var resource = row.getResource("value");
+                        var label = row.getLiteral("label").getString();
+                        values.add(new ValueDto(label, resource.getURI()));
+                    }
+                }
+            }
+            case Boolean -> {
+                var binding = new QuerySolutionMap();
+                binding.add("predicate", createResource(column.source));
+                try (var execution = QueryExecutionFactory.create(BOOLEAN_VALUE_QUERY, ds, binding)) {
+                    var rowExec = execution.execSelect();
+                    // TODO: should we check all results until it's not null (not the first element only)?
+                    if (rowExec.hasNext()) {
+                        booleanValue = (Boolean) ofNullable(rowExec.next().getLiteral("booleanValue"))
+                                .map(Literal::getValue)
+                                .map(this::convertLiteralValue)
+                                .orElse(null);
+                    }
+                }
+            }
+            case Number, Date -> {
+                var binding = new QuerySolutionMap();
+                binding.add("predicate", createResource(column.source));
+
+                try (var execution = QueryExecutionFactory.create(BOUNDS_QUERY, ds, binding)) {
+                    var row = execution.execSelect().next();
+                    min = ofNullable(row.getLiteral("min"))
+                            .map(Literal::getValue)
+                            .map(this::convertLiteralValue)
+                            .orElse(null);
+                    max = ofNullable(row.getLiteral("max"))
+                            .map(Literal::getValue)
+                            .map(this::convertLiteralValue)
+                            .orElse(null);
+                }
+            }
+        }
+
+        return new FacetDto(getFacetName(view, column), column.title, column.type, values, booleanValue, min, max);
+    }
+
+    private Object convertLiteralValue(Object value) {
+        if (value instanceof XSDDateTime) {
+            return ofEpochMilli(((XSDDateTime) value).asCalendar().getTimeInMillis());
+        }
+        return value;
+    }
+}
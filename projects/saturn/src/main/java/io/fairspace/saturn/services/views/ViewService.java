@@ -2,26 +2,33 @@ package io.fairspace.saturn.services.views;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.SneakyThrows;
 import lombok.extern.log4j.Log4j2;
-import org.apache.jena.datatypes.xsd.XSDDateTime;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Dataset;
-import org.apache.jena.query.Query;
-import org.apache.jena.query.QueryExecutionFactory;
-import org.apache.jena.query.QueryFactory;
-import org.apache.jena.query.QuerySolution;
-import org.apache.jena.query.QuerySolutionMap;
-import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.lang.Nullable;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import io.fairspace.saturn.config.properties.CacheProperties;
@@ -29,8 +36,8 @@ import io.fairspace.saturn.config.properties.SearchProperties;
 import io.fairspace.saturn.config.properties.ViewsProperties;
 import io.fairspace.saturn.controller.dto.ColumnDto;
 import io.fairspace.saturn.controller.dto.FacetDto;
-import io.fairspace.saturn.controller.dto.ValueDto;
 import io.fairspace.saturn.controller.dto.ViewDto;
+import io.fairspace.saturn.rdf.ChangedPredicatesDatasetGraph;
 import io.fairspace.saturn.rdf.search.FilteredDatasetGraph;
 import io.fairspace.saturn.services.AccessDeniedException;
 import io.fairspace.saturn.services.metadata.MetadataPermissions;
@@ -38,106 +45,85 @@ import io.fairspace.saturn.vocabulary.FS;
 
 import static io.fairspace.saturn.config.properties.ViewsProperties.ColumnType;
 import static io.fairspace.saturn.config.properties.ViewsProperties.View;
+import static io.fairspace.saturn.rdf.ChangedPredicatesDatasetGraph.CHANGED_PREDICATES;
+import static io.fairspace.saturn.services.views.FacetProvider.getFacetName;
 
-import static java.time.Instant.ofEpochMilli;
-import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.toList;
-import static org.apache.jena.rdf.model.ResourceFactory.createResource;
-import static org.apache.jena.system.Txn.calculateRead;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.apache.jena.graph.NodeFactory.createURI;
 
 @Log4j2
 @Service
 public class ViewService {
 
-    private static final Query VALUES_QUERY = QueryFactory.create(String.format(
-            """
-                    PREFIX fs: <%s>
-                    PREFIX rdfs:  <http://www.w3.org/2000/01/rdf-schema#>
-
-                    SELECT ?value ?label
-                    WHERE {
-                       ?value a ?type ; rdfs:label ?label .
-                       FILTER EXISTS {
-                          ?subject ?predicate ?value
-                          FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
-                       }
-                       FILTER NOT EXISTS { ?value fs:dateDeleted ?anyDateDeleted }
-                    } ORDER BY ?label
-                    """,
-            FS.NS));
-
-    private static final Query RESOURCE_TYPE_VALUES_QUERY = QueryFactory.create(String.format(
-            """
-                    PREFIX fs: <%s>
-                    SELECT ?value ?label
-                    WHERE {
-                       VALUES (?value ?label) {
-                          (fs:Collection "Collection")
-                          (fs:Directory "Directory")
-                          (fs:File "File")
-                       }
-                    }
-                    """,
-            FS.NS));
-
-    private static final Query BOUNDS_QUERY = QueryFactory.create(String.format(
-            """
-                    PREFIX fs: <%s>
+    // Maximum number of facet queries running at the same time
+    private static final int FACETS_THREADS = 4;
 
-                    SELECT (MIN(?value) AS ?min) (MAX(?value) AS ?max)
-                    WHERE {
-                       ?subject ?predicate ?value
-                       FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
-                    }
-                    """,
-            FS.NS));
-
-    private static final Query BOOLEAN_VALUE_QUERY = QueryFactory.create(String.format(
-            """
-                    PREFIX fs: <%s>
-                    SELECT ?booleanValue
-                    WHERE {
-                       ?subject ?predicate ?booleanValue
-                       FILTER NOT EXISTS { ?subject fs:dateDeleted ?anyDateDeleted }
-                    }
-                    """,
-            FS.NS));
     public static final String USER_DOES_NOT_HAVE_PERMISSIONS_TO_READ_FACETS =
             "User does not have permissions to read facets";
 
     private final SearchProperties searchProperties;
     private final ViewsProperties viewsProperties;
-    private final Dataset ds;
-    private final ViewStoreReader viewStoreReader;
-    private final ViewStoreClientFactory viewStoreClientFactory;
+    private final FacetProvider facetProvider;
     private final MetadataPermissions metadataPermissions;
-    private final LoadingCache<Boolean, List<FacetDto>> facetsCache;
-    private final LoadingCache<Boolean, List<ViewDto>> viewsCache;
+    private final LoadingCache<Boolean, Versioned<List<FacetDto>>> facetsCache;
+    private final LoadingCache<Boolean, Versioned<List<ViewDto>>> viewsCache;
+    private final AtomicLong facetsVersion = new AtomicLong();
+    private final AtomicLong viewsVersion = new AtomicLong();
+    private final long facetsRefreshDelay;
+    // Predicates changed since the facets depending on them were last refreshed
+    private final Set<Node> changedPredicates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean facetsRefreshScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService facetsRefreshExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("facets-refresh-%d")
+                    .setDaemon(true)
+                    .build());
+    // Serialises full and partial facet updates, so that facets computed earlier never replace newer ones
+    private final Object facetsUpdateLock = new Object();
+    private final ExecutorService facetsExecutor = Executors.newFixedThreadPool(
+            FACETS_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("facets-%d").setDaemon(true).build());
 
     public ViewService(
             SearchProperties searchProperties,
             CacheProperties cacheProperties,
             ViewsProperties viewsProperties,
             @Qualifier("filteredDataset") Dataset ds,
-            ViewStoreReader viewStoreReader,
-            @Nullable ViewStoreClientFactory viewStoreClientFactory,
+            @Qualifier("facetProvider") FacetProvider facetProvider,
             MetadataPermissions metadataPermissions) {
         this.searchProperties = searchProperties;
         this.viewsProperties = viewsProperties;
-        this.ds = ds;
-        this.viewStoreReader = viewStoreReader;
-        this.viewStoreClientFactory = viewStoreClientFactory;
+        this.facetProvider = facetProvider;
         this.metadataPermissions = metadataPermissions;
-        this.facetsCache = buildCache(this::fetchFacets, cacheProperties.getFacets());
-        this.viewsCache = buildCache(this::fetchViews, cacheProperties.getViews());
+        // Facets are reloaded on the refresh thread rather than by the cache itself,
+        // so that a full reload never races with a partial refresh
+        this.facetsCache = buildCache(this::fetchFacetsExclusively, cacheProperties.getFacets(), facetsVersion, false);
+        this.viewsCache = buildCache(
+                this::fetchViews,
+                cacheProperties.getViews(),
+                viewsVersion,
+                cacheProperties.getViews().isAutoRefreshEnabled());
+        this.facetsRefreshDelay = cacheProperties.getFacets().getRefreshOnChangeDelayInMillis();
         refreshCaches();
+        if (cacheProperties.getFacets().isAutoRefreshEnabled()) {
+            var period = cacheProperties.getFacets().getRefreshFrequencyInHours();
+            facetsRefreshExecutor.scheduleAtFixedRate(this::reloadAllFacets, period, period, TimeUnit.HOURS);
+        }
+
+        ChangedPredicatesDatasetGraph changes = ds.getContext().get(CHANGED_PREDICATES);
+        if (changes != null) {
+            changes.addListener(this::onPredicatesChanged);
+        }
     }
 
     public void refreshCaches() {
         log.info("Caches refreshing/warming up has been triggered");
         try {
             FilteredDatasetGraph.disableQuadPermissionCheck();
-            facetsCache.refresh(Boolean.TRUE);
+            reloadFacets();
             viewsCache.refresh(Boolean.TRUE);
         } finally {
             FilteredDatasetGraph.enableQuadPermissionCheck();
@@ -146,6 +132,14 @@ public class ViewService {
     }
 
     public List<FacetDto> getFacets() {
+        return getVersionedFacets().value();
+    }
+
+    /**
+     * Returns the cached facets together with the version of the cache entry,
+     * which is incremented every time the facets are (re)loaded.
+     */
+    public Versioned<List<FacetDto>> getVersionedFacets() {
         if (!metadataPermissions.canReadFacets()) {
             // this check is needed for cached data only as, otherwise,
             // the check will be performed during retrieving data from Jena
@@ -159,6 +153,14 @@ public class ViewService {
     }
 
     public List<ViewDto> getViews() {
+        return getVersionedViews().value();
+    }
+
+    /**
+     * Returns the cached views together with the version of the cache entry,
+     * which is incremented every time the views are (re)loaded.
+     */
+    public Versioned<List<ViewDto>> getVersionedViews() {
         try {
             return viewsCache.get(Boolean.TRUE);
         } catch (ExecutionException e) {
@@ -204,117 +206,192 @@ public class ViewService {
                 .collect(toList());
     }
 
+    /**
+     * Loads all facets when they are not cached yet.
+     */
+    private List<FacetDto> fetchFacetsExclusively() {
+        synchronized (facetsUpdateLock) {
+            return fetchFacets();
+        }
+    }
+
+    /**
+     * Recomputes all facets and replaces them in the cache.
+     * Full and partial updates hold the same lock while computing and storing the facets,
+     * so facets computed earlier never replace facets computed later.
+     */
+    private void reloadFacets() {
+        synchronized (facetsUpdateLock) {
+            var facets = fetchFacets();
+            facetsCache.put(Boolean.TRUE, new Versioned<>(facets, facetsVersion.incrementAndGet()));
+            log.info("List of facets has been cached, {} facets in total", facets.size());
+        }
+    }
+
+    private void reloadAllFacets() {
+        try {
+            FilteredDatasetGraph.disableQuadPermissionCheck();
+            reloadFacets();
+        } catch (Exception e) {
+            log.error("Error reloading facets", e);
+        } finally {
+            FilteredDatasetGraph.enableQuadPermissionCheck();
+        }
+    }
+
     protected List<FacetDto> fetchFacets() {
-        return calculateRead(ds, () -> viewsProperties.views.stream()
-                .flatMap(view -> view.columns.stream()
-                        .map(column -> getFacetInfo(view, column))
-                        .filter(f -> (f.min() != null
-                                || f.max() != null
-                                || (f.values() != null && f.values().size() > 1)
-                                || f.booleanValue() != null)))
-                .collect(toList()));
+        return computeFacets(name -> true).stream()
+                .filter(ViewService::hasOptions)
+                .collect(toList());
     }
 
-    private FacetDto getFacetInfo(View view, View.Column column) {
-        List<ValueDto> values = null;
-        Object min = null;
-        Object max = null;
-        Boolean booleanValue = null;
-
-        switch (column.type) {
-            case Term, TermSet -> {
-                var query = (view.name.equalsIgnoreCase("Resource") && column.name.equalsIgnoreCase("type"))
-                        ? RESOURCE_TYPE_VALUES_QUERY
-                        : VALUES_QUERY;
-                var binding = new QuerySolutionMap();
-                binding.add("type", createResource(column.rdfType));
-                binding.add("predicate", createResource(column.source));
-
-                values = new ArrayList<>();
-                try (var execution = QueryExecutionFactory.create(query, ds, binding)) {
-                    //noinspection NullableProblems
-                    for (var row : (Iterable<QuerySolution>) execution::execSelect) {
-                        var resource = row.getResource("value");
-                        var label = row.getLiteral("label").getString();
-                        values.add(new ValueDto(label, resource.getURI()));
-                    }
-                }
+    /**
+     * Computes the facets of the selected columns concurrently.
+     * The facets are returned in the order of the columns in the views configuration.
+     */
+    @SneakyThrows
+    private List<FacetDto> computeFacets(Predicate<String> facetNameFilter) {
+        var futures = viewsProperties.views.stream()
+                .flatMap(view -> view.columns.stream()
+                        .filter(column -> facetNameFilter.test(getFacetName(view, column)))
+                        .map(column -> facetsExecutor.submit(
+                                withCallerContext(() -> facetProvider.getFacet(view, column)))))
+                .toList();
+        var facets = new ArrayList<FacetDto>(futures.size());
+        try {
+            for (var future : futures) {
+                facets.add(future.get());
             }
-            case Boolean -> {
-                var binding = new QuerySolutionMap();
-                binding.add("predicate", createResource(column.source));
-                try (var execution = QueryExecutionFactory.create(BOOLEAN_VALUE_QUERY, ds, binding)) {
-                    var rowExec = execution.execSelect();
-                    // TODO: should we check all results until it's not null (not the first element only)?
-                    if (rowExec.hasNext()) {
-                        booleanValue = (Boolean) ofNullable(rowExec.next().getLiteral("booleanValue"))
-                                .map(Literal::getValue)
-                                .map(this::convertLiteralValue)
-                                .orElse(null);
-                    }
-                }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        return facets;
+    }
+
+    /**
+     * Runs the task with the security context and the permission check setting of the calling thread.
+     */
+    private static <T> Callable<T> withCallerContext(Supplier<T> task) {
+        var securityContext = SecurityContextHolder.getContext();
+        var permissionCheckEnabled = FilteredDatasetGraph.isQuadPermissionCheckEnabled();
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            if (!permissionCheckEnabled) {
+                FilteredDatasetGraph.disableQuadPermissionCheck();
             }
-            case Number, Date -> {
-                if (viewStoreClientFactory != null) {
-                    var range = getViewStoreColumnRange(view, column);
-                    if (range != null) {
-                        min = range.getStart();
-                        max = range.getEnd();
-                    }
-                } else {
-                    var binding = new QuerySolutionMap();
-                    binding.add("predicate", createResource(column.source));
-
-                    try (var execution = QueryExecutionFactory.create(BOUNDS_QUERY, ds, binding)) {
-                        var row = execution.execSelect().next();
-                        min = ofNullable(row.getLiteral("min"))
-                                .map(Literal::getValue)
-                                .map(this::convertLiteralValue)
-                                .orElse(null);
-                        max = ofNullable(row.getLiteral("max"))
-                                .map(Literal::getValue)
-                                .map(this::convertLiteralValue)
-                                .orElse(null);
-                    }
-                }
+            try {
+                return task.get();
+            } finally {
+                FilteredDatasetGraph.enableQuadPermissionCheck();
+                SecurityContextHolder.clearContext();
             }
-        }
+        };
+    }
 
-        return new FacetDto(view.name + "_" + column.name, column.title, column.type, values, booleanValue, min, max);
+    private static boolean hasOptions(FacetDto facet) {
+        return facet.min() != null
+                || facet.max() != null
+                || (facet.values() != null && facet.values().size() > 1)
+                || facet.booleanValue() != null;
     }
 
-    private Object convertLiteralValue(Object value) {
-        if (value instanceof XSDDateTime) {
-            return ofEpochMilli(((XSDDateTime) value).asCalendar().getTimeInMillis());
+    /**
+     * Schedules a refresh of the facets depending on the given predicates.
+     * Changes arriving until the refresh starts are coalesced and handled by that same refresh.
+     */
+    void onPredicatesChanged(Set<Node> predicates) {
+        changedPredicates.addAll(predicates);
+        if (facetsRefreshScheduled.compareAndSet(false, true)) {
+            facetsRefreshExecutor.schedule(this::refreshChangedFacets, facetsRefreshDelay, TimeUnit.MILLISECONDS);
         }
-        return value;
     }
 
-    @SneakyThrows
-    private Range getViewStoreColumnRange(View view, View.Column column) {
-        if (!EnumSet.of(ColumnType.Date, ColumnType.Number).contains(column.type)) {
-            return null;
+    private void refreshChangedFacets() {
+        facetsRefreshScheduled.set(false);
+        var predicates = new HashSet<Node>();
+        for (var it = changedPredicates.iterator(); it.hasNext(); ) {
+            predicates.add(it.next());
+            it.remove();
+        }
+        var facetNames = getFacetsDependingOn(predicates);
+        if (facetNames.isEmpty()) {
+            return;
+        }
+        try {
+            FilteredDatasetGraph.disableQuadPermissionCheck();
+            refreshFacets(facetNames);
+        } catch (Exception e) {
+            log.error("Error refreshing facets {}", facetNames, e);
+        } finally {
+            FilteredDatasetGraph.enableQuadPermissionCheck();
         }
-        return viewStoreReader.aggregate(view.name, column.name);
     }
 
-    private <T> LoadingCache<Boolean, List<T>> buildCache(
-            Supplier<List<T>> fetchSupplier, CacheProperties.Cache cacheConfig) {
+    /**
+     * Term facets also depend on the types and labels of their values,
+     * and all facets ignore deleted entities.
+     */
+    private Set<String> getFacetsDependingOn(Set<Node> predicates) {
+        var all = predicates.contains(FS.dateDeleted.asNode());
+        var terms = predicates.contains(RDF.type.asNode()) || predicates.contains(RDFS.label.asNode());
+        return viewsProperties.views.stream()
+                .flatMap(view -> view.columns.stream()
+                        .filter(column -> all
+                                || (terms && EnumSet.of(ColumnType.Term, ColumnType.TermSet).contains(column.type))
+                                || (column.source != null && predicates.contains(createURI(column.source))))
+                        .map(column -> getFacetName(view, column)))
+                .collect(toSet());
+    }
+
+    /**
+     * Recomputes the given facets and replaces them in the cache, keeping all other facets as they are.
+     */
+    private void refreshFacets(Set<String> facetNames) {
+        synchronized (facetsUpdateLock) {
+            var refreshed = computeFacets(facetNames::contains).stream()
+                    .collect(toMap(FacetDto::name, identity(), (first, second) -> first));
+            var cached = facetsCache.getIfPresent(Boolean.TRUE);
+            if (cached == null) {
+                return; // all facets will be loaded on the next request
+            }
+            var current = cached.value().stream().collect(toMap(FacetDto::name, identity(), (first, second) -> first));
+            var facets = viewsProperties.views.stream()
+                    .flatMap(view -> view.columns.stream().map(column -> getFacetName(view, column)))
+                    .map(name -> refreshed.containsKey(name) ? refreshed.get(name) : current.get(name))
+                    .filter(facet -> facet != null && hasOptions(facet))
+                    .collect(toList());
+            facetsCache.put(Boolean.TRUE, new Versioned<>(facets, facetsVersion.incrementAndGet()));
+        }
+        log.info("Facets {} have been refreshed", facetNames);
+    }
+
+    private <T> LoadingCache<Boolean, Versioned<List<T>>> buildCache(
+            Supplier<List<T>> fetchSupplier,
+            CacheProperties.Cache cacheConfig,
+            AtomicLong version,
+            boolean refreshAfterWrite) {
         var cacheBuilder = CacheBuilder.newBuilder();
-        if (cacheConfig.isAutoRefreshEnabled()) {
+        if (refreshAfterWrite) {
             cacheBuilder.refreshAfterWrite(cacheConfig.getRefreshFrequencyInHours(), TimeUnit.HOURS);
         }
         return cacheBuilder.build(new CacheLoader<>() {
             @Override
-            public List<T> load(Boolean key) {
+            public Versioned<List<T>> load(Boolean key) {
                 var cachedObjects = fetchSupplier.get();
                 log.info(
                         "List of {} has been cached, {} {} in total",
                         cacheConfig.getName(),
                         cachedObjects.size(),
                         cacheConfig.getName());
-                return cachedObjects;
+                return new Versioned<>(cachedObjects, version.incrementAndGet());
             }
         });
     }
+
+    public record Versioned<T>(T value, long version) {}
 }
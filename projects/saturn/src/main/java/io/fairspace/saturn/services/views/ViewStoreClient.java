@@ -202,18 +202,35 @@ public class ViewStoreClient implements AutoCloseable {
         }
     }
 
-    public void addLabel(String id, String type, String label) throws SQLException {
+    public void addLabel(String id, String type, String label, boolean deleted) throws SQLException {
         if (!rowExists("label", id)) {
-            try (var insert = connection.prepareStatement("insert into label (id, type, label) values (?, ?, ?)")) {
+            try (var insert = connection.prepareStatement(
+                    "insert into label (id, type, label, deleted) values (?, ?, ?, ?)")) {
                 insert.setString(1, id);
                 insert.setString(2, type);
                 insert.setString(3, label);
+                insert.setBoolean(4, deleted);
                 insert.executeUpdate();
                 log.debug("Inserted label '{}' for {} (type {})", label, id, type);
             }
         }
     }
 
+    /**
+     * Marks the label of a term as deleted or restored. Does nothing if the term has no label in the view database.
+     */
+    public void updateLabelDeleted(String id, boolean deleted) throws SQLException {
+        try (var update = connection.prepareStatement(
+                "update label set deleted = ? where id = ? and deleted is distinct from ?")) {
+            update.setBoolean(1, deleted);
+            update.setString(2, id);
+            update.setBoolean(3, deleted);
+            if (update.executeUpdate() > 0) {
+                log.debug("Marked label of {} as {}", id, deleted ? "deleted" : "not deleted");
+            }
+        }
+    }
+
     public int updateRows(String view, List<Map<String, Object>> rows, boolean bulkInsert) throws SQLException {
         var viewTable = configuration.viewTables.get(view);
         var config = configuration.viewConfig.get(view);
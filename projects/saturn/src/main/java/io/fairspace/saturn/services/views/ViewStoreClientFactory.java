@@ -61,7 +61,11 @@ public class ViewStoreClientFactory {
 
         createOrUpdateTable(new Table(
                 "label",
-                List.of(idColumn(), valueColumn("type", ColumnType.Text), valueColumn("label", ColumnType.Text))));
+                List.of(
+                        idColumn(),
+                        valueColumn("type", ColumnType.Text),
+                        valueColumn("label", ColumnType.Text),
+                        valueColumn("deleted", ColumnType.Boolean))));
 
         // todo: configuration is initialized within the loop below, do the initialization in constructor
         for (View view : viewsProperties.views) {
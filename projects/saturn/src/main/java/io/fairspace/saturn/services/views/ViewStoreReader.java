@@ -6,6 +6,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -18,10 +19,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
+import com.pivovarit.function.ThrowingConsumer;
+import com.pivovarit.function.ThrowingFunction;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -31,12 +37,16 @@ import io.fairspace.saturn.config.properties.SearchProperties;
 import io.fairspace.saturn.config.properties.ViewsProperties;
 import io.fairspace.saturn.config.properties.ViewsProperties.ColumnType;
 import io.fairspace.saturn.config.properties.ViewsProperties.View;
+import io.fairspace.saturn.controller.dto.CountDto;
+import io.fairspace.saturn.controller.dto.FacetDto;
 import io.fairspace.saturn.controller.dto.SearchResultDto;
 import io.fairspace.saturn.controller.dto.ValueDto;
 import io.fairspace.saturn.controller.dto.request.FileSearchRequest;
 import io.fairspace.saturn.vocabulary.FS;
 
 import static io.fairspace.saturn.config.properties.ViewsProperties.ColumnType.Date;
+import static io.fairspace.saturn.services.views.FacetProvider.getFacetName;
+import static io.fairspace.saturn.services.views.FacetProvider.isResourceTypeColumn;
 import static io.fairspace.saturn.services.views.Table.idColumn;
 
 /**
@@ -46,10 +56,17 @@ import static io.fairspace.saturn.services.views.Table.idColumn;
  * Access to collections is not checked here. Restricting results
  * to only allowed collections can be achieved by providing these
  * collections in a filter with 'Resource_collection' as field.
+ * Facets are computed from the view tables as well, see {@link #getFacet(View, View.Column)}.
  */
 @Slf4j
 @Component
-public class ViewStoreReader {
+public class ViewStoreReader implements FacetProvider {
+    private static final ObjectMapper PLAN_MAPPER = new ObjectMapper();
+    private static final List<ValueDto> RESOURCE_TYPE_VALUES = List.of(
+            new ValueDto("Collection", FS.COLLECTION_URI),
+            new ValueDto("Directory", FS.DIRECTORY_URI),
+            new ValueDto("File", FS.FILE_URI));
+
     final SearchProperties searchProperties;
     final ViewsProperties viewsProperties;
     final ViewStoreClient.ViewStoreConfiguration configuration;
@@ -66,10 +83,28 @@ public class ViewStoreReader {
         this.viewStoreClientFactory = viewStoreClientFactory;
     }
 
-    List<Object> getLabelsByIds(List<String> ids) throws SQLException {
+    /**
+     * Runs all queries of a single request on one connection from the pool.
+     * The connection is read-only and the queries share a repeatable read transaction,
+     * so they all see the same snapshot of the view database.
+     */
+    private <R> R read(ThrowingFunction<Connection, R, SQLException> job) throws SQLException {
+        try (var connection = viewStoreClientFactory.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                return job.apply(connection);
+            } finally {
+                // Nothing to commit, the pool restores the connection's settings when it is returned
+                connection.rollback();
+            }
+        }
+    }
+
+    List<Object> getLabelsByIds(Connection connection, List<String> ids) throws SQLException {
         String query = "select label from label where id = ANY(?::text[])";
-        try (var connection = viewStoreClientFactory.getConnection();
-                var preparedStatement = connection.prepareStatement(query)) {
+        try (var preparedStatement = connection.prepareStatement(query)) {
             var array = preparedStatement.getConnection().createArrayOf("text", ids.toArray());
             preparedStatement.setArray(1, array);
             var result = preparedStatement.executeQuery();
@@ -81,9 +116,10 @@ public class ViewStoreReader {
         }
     }
 
-    String iriForLabel(String type, String label) throws SQLException {
-        try (var connection = viewStoreClientFactory.getConnection();
-                var query = connection.prepareStatement("select id from label where type = ? and label = ?")) {
+    String iriForLabel(Connection connection, String type, String label) throws SQLException {
+        // A deleted term can share its label with a term that replaced it
+        try (var query = connection.prepareStatement(
+                "select id from label where type = ? and label = ? order by deleted is true limit 1")) {
             query.setString(1, type);
             query.setString(2, label);
             var result = query.executeQuery();
@@ -94,7 +130,8 @@ public class ViewStoreReader {
         return null;
     }
 
-    Map<String, Set<ValueDto>> transformRow(View viewConfig, ResultSet result) throws SQLException {
+    Map<String, Set<ValueDto>> transformRow(Connection connection, View viewConfig, ResultSet result)
+            throws SQLException {
         Map<String, Set<ValueDto>> row = new HashMap<>();
         row.put(
                 viewConfig.name,
@@ -124,9 +161,8 @@ public class ViewStoreReader {
             } else {
                 var value = result.getString(column.name);
                 if (viewColumn.type == ColumnType.Term) {
-                    row.put(
-                            columnName,
-                            Collections.singleton(new ValueDto(value, iriForLabel(viewColumn.rdfType, value))));
+                    var iri = iriForLabel(connection, viewColumn.rdfType, value);
+                    row.put(columnName, Collections.singleton(new ValueDto(value, iri)));
                 } else {
                     row.put(columnName, Collections.singleton(new ValueDto(value, value)));
                 }
@@ -168,7 +204,7 @@ public class ViewStoreReader {
         return viewColumn;
     }
 
-    void prepareFilters(List<ViewFilter> filters) throws SQLException {
+    void prepareFilters(Connection connection, List<ViewFilter> filters) throws SQLException {
         for (var filter : filters) {
             if (filter.getField().equalsIgnoreCase("location")) {
                 filter.setField("Resource");
@@ -181,7 +217,7 @@ public class ViewStoreReader {
             }
             if (EnumSet.of(ColumnType.Term, ColumnType.TermSet).contains(column.type)) {
                 var labelIds = filter.values.stream().map(Object::toString).toList();
-                filter.values = getLabelsByIds(labelIds);
+                filter.values = getLabelsByIds(connection, labelIds);
             } else if (column.type == Date) {
                 if (filter.min != null) {
                     filter.min = Instant.parse(filter.min.toString());
@@ -299,10 +335,24 @@ public class ViewStoreReader {
 
     PreparedStatement query(Connection connection, String view, List<ViewFilter> filters, String scope, boolean isCount)
             throws SQLException {
+        UnaryOperator<String> projection =
+                isCount ? query -> transformToCountQuery(view, query) : query -> query.formatted("*");
+        return query(connection, view, filters, scope, projection);
+    }
+
+    private PreparedStatement query(
+            Connection connection,
+            String view,
+            List<ViewFilter> filters,
+            String scope,
+            UnaryOperator<String> projection)
+            throws SQLException {
         if (filters == null) {
             filters = Collections.emptyList();
         }
-        prepareFilters(filters);
+        // Filters are prepared on a copy, so that the same filters can be used for several queries
+        filters = filters.stream().map(filter -> filter.toBuilder().build()).toList();
+        prepareFilters(connection, filters);
         var filtersByView = filters.stream()
                 .collect(Collectors.groupingBy(filter -> filter.getField().split("_")[0]));
         var values = new ArrayList<>();
@@ -340,7 +390,7 @@ public class ViewStoreReader {
                 + viewTable.name + " v " + (constraints.isBlank() ? "" : " where " + constraints)
                 + (scope == null ? "" : (" " + scope));
 
-        query = isCount ? transformToCountQuery(view, query) : query.formatted("*");
+        query = projection.apply(query);
         var preparedStatement = connection.prepareStatement(query);
         for (var i = 0; i < values.size(); i++) {
             var value = values.get(i);
@@ -377,15 +427,15 @@ public class ViewStoreReader {
         return query;
     }
 
-    Map<String, ViewRow> retrieveViewTableRows(String view, List<ViewFilter> filters, int offset, int limit)
-            throws SQLException {
+    Map<String, ViewRow> retrieveViewTableRows(
+            Connection connection, String view, List<ViewFilter> filters, int offset, int limit) throws SQLException {
         var viewConfig = configuration.viewConfig.get(view);
         if (viewConfig == null) {
             throw new IllegalArgumentException("View not supported: " + view);
         }
 
         // retrieve view rows with fields from the view table only (not of the Set type)
-        var rowsById = getViewRowsForNonSetType(viewConfig, filters, offset, limit);
+        var rowsById = getViewRowsForNonSetType(connection, viewConfig, filters, offset, limit);
 
         if (!rowsById.isEmpty()) {
             // TODO: with materialized or normal view we can retrieve all data in one go adding one more join in the
@@ -397,7 +447,7 @@ public class ViewStoreReader {
                     .map(column -> column.name)
                     .toList();
             if (!valueSetProperties.isEmpty()) {
-                var viewRowsForSetType = getViewRowsForSetType(view, valueSetProperties, viewIds);
+                var viewRowsForSetType = getViewRowsForSetType(connection, view, valueSetProperties, viewIds);
                 // merge the data from the view (for instance, Study) table and related tables (for instance,
                 // Study_TreatmentId)
                 viewRowsForSetType.forEach((key, value) -> rowsById.get(key).merge(value));
@@ -406,10 +456,9 @@ public class ViewStoreReader {
         return rowsById;
     }
 
-    private Map<String, ViewRow> getViewRowsForNonSetType(View view, List<ViewFilter> filters, int offset, int limit)
-            throws SQLException {
-        try (var connection = viewStoreClientFactory.getConnection();
-                var query = query(
+    private Map<String, ViewRow> getViewRowsForNonSetType(
+            Connection connection, View view, List<ViewFilter> filters, int offset, int limit) throws SQLException {
+        try (var query = query(
                         connection,
                         view.name,
                         filters,
@@ -420,21 +469,21 @@ public class ViewStoreReader {
             var result = query.executeQuery();
             Map<String, ViewRow> rowsById = new HashMap<>();
             while (result.next()) {
-                var row = transformRow(view, result);
+                var row = transformRow(connection, view, result);
                 rowsById.put(result.getString("id"), new ViewRow(row));
             }
             return rowsById;
         }
     }
 
-    private Map<String, ViewRow> getViewRowsForSetType(String view, List<String> valueSetProperties, String[] viewIds)
+    private Map<String, ViewRow> getViewRowsForSetType(
+            Connection connection, String view, List<String> valueSetProperties, String[] viewIds)
             throws SQLException {
 
         var columns = String.join(", ", valueSetProperties);
         var query = "select %sid, %s from mv_%s where %sid = ANY(?::text[])".formatted(view, columns, view, view);
 
-        try (var connection = viewStoreClientFactory.getConnection();
-                var ps = connection.prepareStatement(query)) {
+        try (var ps = connection.prepareStatement(query)) {
             Array array = ps.getConnection().createArrayOf("text", viewIds);
             ps.setArray(1, array);
             ResultSet resultSet = ps.executeQuery();
@@ -451,8 +500,8 @@ public class ViewStoreReader {
         }
     }
 
-    private ViewRowCollection retrieveJoinTableRows(String view, View.JoinView joinView, Collection<String> ids)
-            throws SQLException {
+    private ViewRowCollection retrieveJoinTableRows(
+            Connection connection, String view, View.JoinView joinView, Collection<String> ids) throws SQLException {
 
         var joinedTable = configuration.viewTables.get(joinView.view);
         var viewIdColumn = idColumn(view).name;
@@ -465,8 +514,7 @@ public class ViewStoreReader {
         var rows = new ViewRowCollection(searchProperties.getMaxJoinItems());
 
         if (!ids.isEmpty()) {
-            try (var connection = viewStoreClientFactory.getConnection();
-                    var query = getJoinQuery(connection, view, joinedTable, ids);
+            try (var query = getJoinQuery(connection, view, joinedTable, ids);
                     var result = query.executeQuery()) {
                 while (result.next()) {
                     var id = result.getString(viewIdColumn);
@@ -542,15 +590,22 @@ public class ViewStoreReader {
      * @return a range object containing the minimum and maximum values.
      */
     public Range aggregate(String view, String column) {
+        try {
+            return read(connection -> aggregate(connection, view, column));
+        } catch (SQLException e) {
+            throw new QueryException("Error aggregating column values", e);
+        }
+    }
+
+    private Range aggregate(Connection connection, String view, String column) throws SQLException {
         var viewConfig = configuration.viewConfig.get(view);
         if (viewConfig == null) {
             throw new IllegalArgumentException("View not supported: " + view);
         }
         var table = configuration.viewTables.get(view);
         var columnDefinition = table.getColumn(column.toLowerCase());
-        try (var connection = viewStoreClientFactory.getConnection();
-                var query = connection.prepareStatement("select min(" + columnDefinition.name + ") as min, max("
-                        + columnDefinition.name + ") as max" + " from " + table.name)) {
+        try (var query = connection.prepareStatement("select min(" + columnDefinition.name + ") as min, max("
+                + columnDefinition.name + ") as max" + " from " + table.name)) {
             var result = query.executeQuery();
             if (!result.next()) {
                 return null;
@@ -565,8 +620,85 @@ public class ViewStoreReader {
                 max = result.getBigDecimal("max");
             }
             return new Range(min, max);
+        }
+    }
+
+    /**
+     * Computes the facet of a view column from the view tables,
+     * which avoids scanning the RDF database for every column.
+     * The values of a term column are the labelled, non-deleted terms occurring in the column,
+     * ordered by label. The view tables store terms by their label, which is unique among the
+     * non-deleted terms of a type, so a term is matched to the column values by its label.
+     *
+     * @param view   the view.
+     * @param column the column of the view.
+     * @return the facet of the column.
+     */
+    @Override
+    public FacetDto getFacet(View view, View.Column column) {
+        try {
+            return read(connection -> getFacet(connection, view, column));
         } catch (SQLException e) {
-            throw new QueryException("Error aggregating column values", e);
+            throw new QueryException("Error retrieving facet values", e);
+        }
+    }
+
+    private FacetDto getFacet(Connection connection, View view, View.Column column) throws SQLException {
+        List<ValueDto> values = null;
+        Object min = null;
+        Object max = null;
+        Boolean booleanValue = null;
+
+        switch (column.type) {
+            case Term, TermSet -> {
+                if (isResourceTypeColumn(view, column)) {
+                    values = RESOURCE_TYPE_VALUES;
+                } else {
+                    values = retrieveTermValues(connection, view, column);
+                }
+            }
+            case Boolean -> booleanValue = retrieveAnyBooleanValue(connection, view, column);
+            case Number, Date -> {
+                var range = aggregate(connection, view.name, column.name);
+                if (range != null) {
+                    min = range.getStart();
+                    max = range.getEnd();
+                }
+            }
+        }
+
+        return new FacetDto(getFacetName(view, column), column.title, column.type, values, booleanValue, min, max);
+    }
+
+    private List<ValueDto> retrieveTermValues(Connection connection, View view, View.Column column)
+            throws SQLException {
+        // Values of term set columns are stored in a separate property table
+        var table = column.type.isSet()
+                ? configuration.propertyTables.get(view.name).get(column.name)
+                : configuration.viewTables.get(view.name);
+        var columnName = table.getColumn(column.name).name;
+        // Term values are stored by label, so a label stands for the one non-deleted term of the type carrying it
+        try (var query = connection.prepareStatement("select distinct on (label) id, label from label "
+                + "where type = ? and deleted is not true and label in "
+                + "(select distinct " + columnName + " from " + table.name + ") order by label, id")) {
+            query.setString(1, column.rdfType);
+            var result = query.executeQuery();
+            var values = new ArrayList<ValueDto>();
+            while (result.next()) {
+                values.add(new ValueDto(result.getString("label"), result.getString("id")));
+            }
+            return values;
+        }
+    }
+
+    private Boolean retrieveAnyBooleanValue(Connection connection, View view, View.Column column)
+            throws SQLException {
+        var table = configuration.viewTables.get(view.name);
+        var columnName = table.getColumn(column.name).name;
+        try (var query = connection.prepareStatement(
+                "select " + columnName + " from " + table.name + " where " + columnName + " is not null limit 1")) {
+            var result = query.executeQuery();
+            return result.next() ? result.getBoolean(1) : null;
         }
     }
 
@@ -584,22 +716,26 @@ public class ViewStoreReader {
      */
     public List<Map<String, Set<ValueDto>>> retrieveRows(
             String view, List<ViewFilter> filters, int offset, int limit, boolean includeJoinedViews) {
+        var viewConfig = configuration.viewConfig.get(view);
+        if (viewConfig == null) {
+            throw new IllegalArgumentException("View not supported: " + view);
+        }
         try {
-            var viewConfig = configuration.viewConfig.get(view);
-            if (viewConfig == null) {
-                throw new IllegalArgumentException("View not supported: " + view);
-            }
-            // Fetch rows with columns from the view table
-            var rowsById = this.retrieveViewTableRows(view, filters, offset, limit);
-
-            // Add items from join tables
-            if (includeJoinedViews && !rowsById.isEmpty()) {
-                for (var joinView : viewConfig.join) {
-                    var allJoinTableRows = this.retrieveJoinTableRows(view, joinView, rowsById.keySet());
-                    rowsById.forEach((id, row) -> addJoinTableRowsForRow(row, allJoinTableRows.getRowsForId(id)));
+            return read(connection -> {
+                // Fetch rows with columns from the view table
+                var rowsById = this.retrieveViewTableRows(connection, view, filters, offset, limit);
+
+                // Add items from join tables
+                if (includeJoinedViews && !rowsById.isEmpty()) {
+                    for (var joinView : viewConfig.join) {
+                        var allJoinTableRows =
+                                this.retrieveJoinTableRows(connection, view, joinView, rowsById.keySet());
+                        rowsById.forEach(
+                                (id, row) -> addJoinTableRowsForRow(row, allJoinTableRows.getRowsForId(id)));
+                    }
                 }
-            }
-            return rowsById.values().stream().map(ViewRow::getRawData).toList();
+                return rowsById.values().stream().map(ViewRow::getRawData).toList();
+            });
         } catch (SQLException e) {
             throw new QueryException("Error retrieving page rows", e);
         }
@@ -610,12 +746,66 @@ public class ViewStoreReader {
     }
 
     public long countRows(String view, List<ViewFilter> filters) throws SQLTimeoutException {
-        try (var connection = viewStoreClientFactory.getConnection();
-                var q = query(connection, view, filters, null, true)) {
+        try {
+            return read(connection -> countRows(connection, view, filters, statement -> {}));
+        } catch (SQLTimeoutException e) {
+            throw e;
+        } catch (SQLException e) {
+            throw new QueryException("Error counting rows", e);
+        }
+    }
+
+    private long countRows(
+            Connection connection,
+            String view,
+            List<ViewFilter> filters,
+            ThrowingConsumer<? super Statement, SQLException> onExecute)
+            throws SQLException {
+        try (var q = query(connection, view, filters, null, true)) {
             q.setQueryTimeout(searchProperties.getCountRequestTimeout());
+            onExecute.accept(q);
             var result = q.executeQuery();
             result.next();
             return result.getLong("rowCount");
+        }
+    }
+
+    /**
+     * Counts the rows of a view table after applying the specified filters, like {@link #countRows(String, List)}.
+     * If the query planner expects more rows than the exact count threshold, its estimate is returned instead,
+     * as an exact count has to visit all matching rows.
+     * Views with a maximum display count are always counted exactly, as their count query is limited already.
+     *
+     * @param view    the name of the view.
+     * @param filters the filters to apply.
+     * @return the number of rows, marked as estimated if it is not exact.
+     */
+    public CountDto countOrEstimateRows(String view, List<ViewFilter> filters) throws SQLTimeoutException {
+        return countOrEstimateRows(view, filters, statement -> {});
+    }
+
+    /**
+     * Like {@link #countOrEstimateRows(String, List)}, passing each statement to {@code onExecute} before it is
+     * executed, so that it can be cancelled from another thread with {@link Statement#cancel()}.
+     */
+    public CountDto countOrEstimateRows(
+            String view, List<ViewFilter> filters, ThrowingConsumer<? super Statement, SQLException> onExecute)
+            throws SQLTimeoutException {
+        var threshold = searchProperties.getExactCountThreshold();
+        boolean isCountLimitDefined = viewsProperties
+                .getViewConfig(view)
+                .map(c -> c.maxDisplayCount != null)
+                .orElse(false);
+        try {
+            return read(connection -> {
+                if (threshold > 0 && !isCountLimitDefined) {
+                    var estimate = estimateRows(connection, view, filters, onExecute);
+                    if (estimate > threshold) {
+                        return new CountDto(estimate, false, true);
+                    }
+                }
+                return new CountDto(countRows(connection, view, filters, onExecute), false, false);
+            });
         } catch (SQLTimeoutException e) {
             throw e;
         } catch (SQLException e) {
@@ -623,6 +813,25 @@ public class ViewStoreReader {
         }
     }
 
+    private long estimateRows(
+            Connection connection,
+            String view,
+            List<ViewFilter> filters,
+            ThrowingConsumer<? super Statement, SQLException> onExecute)
+            throws SQLException {
+        try (var q = query(
+                connection, view, filters, null, query -> "explain (format json) " + query.formatted("*"))) {
+            q.setQueryTimeout(searchProperties.getCountRequestTimeout());
+            onExecute.accept(q);
+            var result = q.executeQuery();
+            result.next();
+            var plan = PLAN_MAPPER.readTree(result.getString(1));
+            return plan.path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected query plan", e);
+        }
+    }
+
     public List<SearchResultDto> searchFiles(FileSearchRequest request, List<String> userCollections) {
         if (userCollections == null || userCollections.isEmpty()) {
             return Collections.emptyList();
@@ -649,17 +858,19 @@ public class ViewStoreReader {
                 .append(idConstraint)
                 .append("order by id asc limit 1000");
 
-        try (var connection = viewStoreClientFactory.getConnection();
-                var statement = connection.prepareStatement(queryString.toString())) {
-            for (int i = 0; i < values.size(); i++) {
-                statement.setString(i + 1, values.get(i));
-            }
-
-            statement.setQueryTimeout(searchProperties.getPageRequestTimeout());
+        try {
+            return read(connection -> {
+                try (var statement = connection.prepareStatement(queryString.toString())) {
+                    for (int i = 0; i < values.size(); i++) {
+                        statement.setString(i + 1, values.get(i));
+                    }
 
-            var result = statement.executeQuery();
-            return convertResult(result);
+                    statement.setQueryTimeout(searchProperties.getPageRequestTimeout());
 
+                    var result = statement.executeQuery();
+                    return convertResult(result);
+                }
+            });
         } catch (SQLException e) {
             log.error("Error searching files.", e);
             throw new RuntimeException("Error searching files.", e); // Terminates Saturn
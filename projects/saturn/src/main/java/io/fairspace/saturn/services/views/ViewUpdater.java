@@ -93,6 +93,10 @@ public class ViewUpdater implements AutoCloseable {
         return labelNode.getLiteral().toString(false);
     }
 
+    private boolean isDeleted(Node subject) {
+        return graph.find(subject, FS.dateDeleted.asNode(), Node.ANY).hasNext();
+    }
+
     public Object getValue(ViewsProperties.View.Column column, Node node) throws SQLException {
         return switch (column.type) {
             case Boolean, Number -> node.getLiteralValue();
@@ -109,7 +113,7 @@ public class ViewUpdater implements AutoCloseable {
             }
             case Term, TermSet -> {
                 var label = getLabel(graph, node);
-                viewStoreClient.addLabel(node.getURI(), column.rdfType, label);
+                viewStoreClient.addLabel(node.getURI(), column.rdfType, label, isDeleted(node));
                 yield label;
             }
             default -> {
@@ -152,10 +156,16 @@ public class ViewUpdater implements AutoCloseable {
         var start = new Date().getTime();
         var type = typeNode.get().getObject();
         log.debug("Subject {} of type {}", subject.getURI(), type.getLocalName());
+        // The subject may be a term used as a value in views, deleted terms are not offered as facet values
+        try {
+            viewStoreClient.updateLabelDeleted(subject.getURI(), isDeleted(subject));
+        } catch (SQLException e) {
+            log.error("Failed to update the label of {}", subject.getURI(), e);
+        }
         viewsProperties.views.stream()
                 .filter(view -> view.types.contains(type.getURI()))
                 .forEach(view -> {
-                    if (graph.find(subject, FS.dateDeleted.asNode(), Node.ANY).hasNext()) {
+                    if (isDeleted(subject)) {
                         log.debug(
                                 "Deleting entity {} of type {} from view {}",
                                 subject.getURI(),
@@ -200,7 +210,8 @@ public class ViewUpdater implements AutoCloseable {
                                 for (var term : objects) {
                                     if (column.type == ViewsProperties.ColumnType.TermSet) {
                                         var label = getLabel(graph, term);
-                                        viewStoreClient.addLabel(term.getURI(), column.rdfType, label);
+                                        viewStoreClient.addLabel(
+                                                term.getURI(), column.rdfType, label, isDeleted(term));
                                         values.add(label);
                                     } else {
                                         values.add(term.getLiteralValue().toString());
@@ -1,5 +1,6 @@
 package io.fairspace.saturn.services.workspaces;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.apache.jena.graph.Node;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
@@ -23,6 +25,7 @@ import io.fairspace.saturn.vocabulary.FS;
 
 import static io.fairspace.saturn.audit.Audit.audit;
 import static io.fairspace.saturn.auth.RequestContext.getUserURI;
+import static io.fairspace.saturn.rdf.dao.DAO.entityFromResource;
 import static io.fairspace.saturn.util.ValidationUtils.validate;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -39,38 +42,54 @@ public class WorkspaceService {
 
     public List<Workspace> listWorkspaces() {
         return tx.calculateRead(m -> {
+            var currentUser = userService.currentUser();
             var user = m.wrapAsResource(getUserURI());
+
+            // Summaries of all workspaces are collected in one pass over the relevant statements
+            var memberCounts = new HashMap<Node, Integer>();
+            m.listStatements(null, FS.isMemberOf, (RDFNode) null)
+                    .filterKeep(stmt -> stmt.getSubject().hasProperty(RDF.type, FS.User))
+                    .forEachRemaining(stmt -> memberCounts.merge(stmt.getObject().asNode(), 1, Integer::sum));
+
+            var users = new HashMap<Resource, User>();
+            var managers = new HashMap<Node, List<User>>();
+            m.listStatements(null, FS.isManagerOf, (RDFNode) null)
+                    .filterKeep(stmt -> stmt.getSubject().hasProperty(RDF.type, FS.User)
+                            && !stmt.getSubject().hasProperty(FS.dateDeleted))
+                    .forEachRemaining(stmt -> managers.computeIfAbsent(
+                                    stmt.getObject().asNode(), ws -> new ArrayList<>())
+                            .add(users.computeIfAbsent(stmt.getSubject(), u -> entityFromResource(User.class, u))));
+
+            var totalCollectionCounts = new HashMap<Node, Integer>();
+            var nonDeletedCollectionCounts = new HashMap<Node, Integer>();
+            m.listStatements(null, FS.ownedBy, (RDFNode) null)
+                    .filterKeep(stmt -> stmt.getSubject().hasProperty(RDF.type, FS.Collection))
+                    .forEachRemaining(stmt -> {
+                        var ws = stmt.getObject().asNode();
+                        totalCollectionCounts.merge(ws, 1, Integer::sum);
+                        if (!stmt.getSubject().hasProperty(FS.dateDeleted)) {
+                            nonDeletedCollectionCounts.merge(ws, 1, Integer::sum);
+                        }
+                    });
+
             return new DAO(m)
                     .list(Workspace.class).stream()
                             .peek(ws -> {
                                 var res = m.wrapAsResource(ws.getIri());
-                                ws.setCanManage(
-                                        userService.currentUser().isAdmin() || user.hasProperty(FS.isManagerOf, res));
+                                ws.setCanManage(currentUser.isAdmin() || user.hasProperty(FS.isManagerOf, res));
                                 ws.setCanCollaborate(ws.isCanManage() || user.hasProperty(FS.isMemberOf, res));
-                                var workspaceCollections = m.listSubjectsWithProperty(FS.ownedBy, res)
-                                        .filterKeep(r -> r.hasProperty(RDF.type, FS.Collection))
-                                        .toList();
-                                var totalCollectionCount = workspaceCollections.size();
-                                var nonDeletedCollectionCount = (int) workspaceCollections.stream()
-                                        .filter(collection -> !collection.hasProperty(FS.dateDeleted))
-                                        .count();
-                                var memberCount = m.listSubjectsWithProperty(RDF.type, FS.User)
-                                        .filterKeep(u -> u.hasProperty(FS.isMemberOf, res))
-                                        .toList()
-                                        .size();
-                                var managers = new DAO(m)
-                                        .list(User.class).stream()
-                                                .filter(u -> m.wrapAsResource(u.getIri())
-                                                        .hasProperty(FS.isManagerOf, res))
-                                                .collect(toList());
+                                var workspaceManagers =
+                                        new ArrayList<>(managers.getOrDefault(ws.getIri(), List.of()));
                                 ws.setSummary(WorkspaceSummary.builder()
-                                        .totalCollectionCount(totalCollectionCount)
-                                        .nonDeletedCollectionCount(nonDeletedCollectionCount)
-                                        .memberCount(memberCount + managers.size())
+                                        .totalCollectionCount(totalCollectionCounts.getOrDefault(ws.getIri(), 0))
+                                        .nonDeletedCollectionCount(
+                                                nonDeletedCollectionCounts.getOrDefault(ws.getIri(), 0))
+                                        .memberCount(
+                                                memberCounts.getOrDefault(ws.getIri(), 0) + workspaceManagers.size())
                                         .build());
-                                ws.setManagers(managers);
+                                ws.setManagers(workspaceManagers);
                             })
-                            .filter(ws -> userService.currentUser().isCanViewPublicMetadata()
+                            .filter(ws -> currentUser.isCanViewPublicMetadata()
                                     || ws.isCanManage()
                                     || ws.isCanCollaborate())
                             .collect(toList());
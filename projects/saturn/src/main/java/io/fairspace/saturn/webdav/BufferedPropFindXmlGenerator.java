@@ -0,0 +1,50 @@
+package io.fairspace.saturn.webdav;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import io.milton.http.XmlWriter;
+import io.milton.http.values.ValueWriters;
+import io.milton.http.webdav.PropFindResponse;
+import io.milton.http.webdav.PropFindXmlGenerator;
+import io.milton.http.webdav.PropFindXmlGeneratorHelper;
+import io.milton.http.webdav.WebDavProtocol;
+
+/**
+ * Writes PROPFIND multistatus responses to the response stream through a fixed-size buffer.
+ * The default generator first renders the complete document into an in-memory buffer before copying it,
+ * which for directories with many entries doubles the memory needed per request.
+ */
+public class BufferedPropFindXmlGenerator extends PropFindXmlGenerator {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PropFindXmlGeneratorHelper helper;
+
+    public BufferedPropFindXmlGenerator(ValueWriters valueWriters) {
+        super(valueWriters);
+        this.helper = new PropFindXmlGeneratorHelper(valueWriters);
+    }
+
+    @Override
+    public void generate(
+            List<PropFindResponse> propFindResponses, OutputStream responseOutput, boolean writeErrorProps) {
+        var namespaces = helper.findNameSpaces(propFindResponses);
+        var out = new BufferedOutputStream(responseOutput, BUFFER_SIZE);
+        var writer = new XmlWriter(out);
+        writer.writeXMLHeader();
+        writer.open(
+                WebDavProtocol.NS_DAV.getPrefix(), "multistatus" + helper.generateNamespaceDeclarations(namespaces));
+        writer.newLine();
+        helper.appendResponses(writer, propFindResponses, namespaces, writeErrorProps);
+        writer.close(WebDavProtocol.NS_DAV.getPrefix(), "multistatus");
+        writer.flush();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package io.fairspace.saturn.webdav;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import io.milton.http.ResourceFactory;
 import io.milton.http.exceptions.NotAuthorizedException;
@@ -31,6 +34,10 @@ import static io.fairspace.saturn.webdav.WebDAVServlet.isMetadataRequest;
 import static io.fairspace.saturn.webdav.WebDAVServlet.showDeleted;
 
 public class DavFactory implements ResourceFactory {
+    // Resource types in the order of precedence used to pick the resource class
+    private static final List<org.apache.jena.rdf.model.Resource> RESOURCE_TYPES =
+            List.of(FS.File, FS.Directory, FS.Collection, FS.ExtraStorageDirectory);
+
     public final org.apache.jena.rdf.model.Resource rootSubject;
     public final BlobStore store;
     public final UserService userService;
@@ -96,21 +103,76 @@ public class DavFactory implements ResourceFactory {
         return getResourceByType(subject, access);
     }
 
+    /**
+     * Resolves a batch of sibling resources sharing the same access level, e.g. the children of a directory.
+     * Equivalent to calling {@link #getResource(org.apache.jena.rdf.model.Resource, Access)} for each subject,
+     * but reads the type, deletion and move status of every subject in a single pass over its statements.
+     */
+    public List<Resource> getResources(Collection<org.apache.jena.rdf.model.Resource> subjects, Access access) {
+        var extraStore = isExtraStoreResource();
+        var user = extraStore ? currentUserResource() : null;
+        var includeDeleted = showDeleted();
+        var result = new ArrayList<Resource>(subjects.size());
+
+        for (var subject : subjects) {
+            var typeIndex = RESOURCE_TYPES.size();
+            var deleted = false;
+            var moved = false;
+            var createdByUser = false;
+
+            var it = subject.listProperties();
+            try {
+                while (it.hasNext()) {
+                    var stmt = it.next();
+                    var predicate = stmt.getPredicate();
+                    if (predicate.equals(RDF.type)) {
+                        var index = RESOURCE_TYPES.indexOf(stmt.getObject());
+                        if (index >= 0 && index < typeIndex) {
+                            typeIndex = index;
+                        }
+                    } else if (predicate.equals(FS.dateDeleted)) {
+                        deleted = true;
+                    } else if (predicate.equals(FS.movedTo)) {
+                        moved = true;
+                    } else if (extraStore && predicate.equals(FS.createdBy)) {
+                        createdByUser |= user == null || stmt.getObject().equals(user);
+                    }
+                }
+            } finally {
+                it.close();
+            }
+
+            if (typeIndex == RESOURCE_TYPES.size() || moved || (deleted && !includeDeleted)) {
+                continue;
+            }
+            var type = RESOURCE_TYPES.get(typeIndex);
+            if (extraStore && type.equals(FS.File) && !createdByUser) {
+                continue;
+            }
+            result.add(createResource(subject, type, access));
+        }
+        return result;
+    }
+
     public Resource getResourceByType(org.apache.jena.rdf.model.Resource subject, Access access) {
-        if (subject.hasProperty(RDF.type, FS.File)) {
-            return new FileResource(this, subject, access, userVocabulary);
+        for (var type : RESOURCE_TYPES) {
+            if (subject.hasProperty(RDF.type, type)) {
+                return createResource(subject, type, access);
+            }
         }
-        if (subject.hasProperty(RDF.type, FS.Directory)) {
-            return new DirectoryResource(this, subject, access, userVocabulary, vocabulary);
+
+        return null;
+    }
+
+    private Resource createResource(
+            org.apache.jena.rdf.model.Resource subject, org.apache.jena.rdf.model.Resource type, Access access) {
+        if (type.equals(FS.File)) {
+            return new FileResource(this, subject, access, userVocabulary);
         }
-        if (subject.hasProperty(RDF.type, FS.Collection)) {
+        if (type.equals(FS.Collection)) {
             return new CollectionResource(this, subject, access, userVocabulary, vocabulary);
         }
-        if (subject.hasProperty(RDF.type, FS.ExtraStorageDirectory)) {
-            return new DirectoryResource(this, subject, access, userVocabulary, vocabulary);
-        }
-
-        return null;
+        return new DirectoryResource(this, subject, access, userVocabulary, vocabulary);
     }
 
     public boolean isExtraStoreResource() {
@@ -2,6 +2,7 @@ package io.fairspace.saturn.webdav;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import io.milton.http.FileItem;
 import io.milton.http.RequestParseException;
@@ -11,13 +12,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import io.fairspace.saturn.webdav.blobstore.BlobFileItem;
 import io.fairspace.saturn.webdav.blobstore.BlobStore;
 
+import static io.fairspace.saturn.webdav.WebDAVServlet.ABORT_ACTION_ATTRIBUTE;
+
 import static io.milton.http.ResourceHandlerHelper.ATT_NAME_FILES;
 import static io.milton.http.ResourceHandlerHelper.ATT_NAME_PARAMS;
-import static java.util.stream.Collectors.toMap;
 
 public class PreParsedServletRequest extends ServletRequest {
 
-    public PreParsedServletRequest(HttpServletRequest request, BlobStore store) throws RequestParseException {
+    public PreParsedServletRequest(HttpServletRequest request, BlobStore store, ExecutorService uploadExecutor)
+            throws RequestParseException {
         super(request, request.getServletContext());
 
         var params = new HashMap<String, String>();
@@ -25,8 +28,10 @@ public class PreParsedServletRequest extends ServletRequest {
         super.parseRequestParameters(params, files);
 
         if ("upload_files".equals(params.get("action"))) {
-            files = files.entrySet().stream()
-                    .collect(toMap(Map.Entry::getKey, e -> new BlobFileItem(e.getValue(), store)));
+            var stored = BlobFileItem.storeAll(files, store, uploadExecutor);
+            request.setAttribute(
+                    ABORT_ACTION_ATTRIBUTE, (Runnable) () -> BlobFileItem.deleteAll(stored.values(), store));
+            files = stored;
         }
 
         getAttributes().put(ATT_NAME_PARAMS, params);
@@ -10,6 +10,9 @@ import lombok.SneakyThrows;
 
 import io.fairspace.saturn.rdf.transactions.Transactions;
 
+import static io.fairspace.saturn.auth.RequestContext.getCurrentRequest;
+import static io.fairspace.saturn.webdav.WebDAVServlet.ABORT_ACTION_ATTRIBUTE;
+
 class TransactionalHandlerWrapper implements Handler {
     private final Handler wrapped;
     private final Transactions txn;
@@ -30,8 +33,12 @@ class TransactionalHandlerWrapper implements Handler {
         if (request.getMethod().isWrite) {
             try {
                 txn.executeWrite(ds -> wrapped.process(httpManager, request, response));
-            } catch (MiltonException e) {
-                throw new RuntimeException(e);
+            } catch (Exception e) {
+                onAbort();
+                if (e instanceof MiltonException) {
+                    throw new RuntimeException(e);
+                }
+                throw e;
             }
         } else {
             try {
@@ -42,6 +49,13 @@ class TransactionalHandlerWrapper implements Handler {
         }
     }
 
+    private static void onAbort() {
+        var currentRequest = getCurrentRequest();
+        if (currentRequest != null && currentRequest.getAttribute(ABORT_ACTION_ATTRIBUTE) instanceof Runnable action) {
+            action.run();
+        }
+    }
+
     @Override
     public boolean isCompatible(Resource res) {
         return wrapped.isCompatible(res);
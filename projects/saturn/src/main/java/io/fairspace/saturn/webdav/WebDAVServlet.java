@@ -1,9 +1,13 @@
 package io.fairspace.saturn.webdav;
 
+import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.milton.config.HttpManagerBuilder;
 import io.milton.event.ResponseEvent;
 import io.milton.http.AuthenticationService;
@@ -46,21 +50,37 @@ public class WebDAVServlet extends HttpServlet {
     private static final String BLOB_ATTRIBUTE = "BLOB";
     private static final String TIMESTAMP_ATTRIBUTE = "TIMESTAMP";
     public static final String POST_COMMIT_ACTION_ATTRIBUTE = "POST_COMMIT";
+    public static final String ABORT_ACTION_ATTRIBUTE = "ABORT";
     public static final String ERROR_MESSAGE = "ERROR_MESSAGE";
     public static final String VERSION = "version";
+    // Request attributes with which Tomcat sends a file after the request has been handled
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
 
     private final HttpManager httpManager;
     private final BlobStore store;
+    // Stores the files of multi-file uploads concurrently
+    private final ExecutorService uploadExecutor;
 
-    public WebDAVServlet(ResourceFactory factory, Transactions txn, BlobStore store) {
+    public WebDAVServlet(ResourceFactory factory, Transactions txn, BlobStore store, int uploadThreads) {
         this.store = store;
+        this.uploadExecutor = Executors.newFixedThreadPool(
+                uploadThreads,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("blob-upload-%d")
+                        .setDaemon(true)
+                        .build());
+        var valueWriters = new NullSafeValueWriters();
 
         httpManager = new HttpManagerBuilder() {
             {
                 setResourceFactory(factory);
                 setMultiNamespaceCustomPropertySourceEnabled(true);
                 setAuthenticationService(new AuthenticationService(singletonList(new SaturnAuthenticationHandler())));
-                setValueWriters(new NullSafeValueWriters());
+                setValueWriters(valueWriters);
+                setPropFindXmlGenerator(new BufferedPropFindXmlGenerator(valueWriters));
                 setEnabledJson(false);
                 setEnabledCkBrowser(false);
                 setContentGenerator(new AdvancedContentGenerator());
@@ -111,7 +131,7 @@ public class WebDAVServlet extends HttpServlet {
             }
 
             try {
-                httpManager.process(new PreParsedServletRequest(req, store), new ServletResponse(res));
+                httpManager.process(new PreParsedServletRequest(req, store, uploadExecutor), new ServletResponse(res));
             } catch (RequestParseException e) {
                 throw new IOException(e);
             }
@@ -127,6 +147,12 @@ public class WebDAVServlet extends HttpServlet {
         }
     }
 
+    @Override
+    public void destroy() {
+        uploadExecutor.shutdown();
+        super.destroy();
+    }
+
     public static Integer fileVersion() {
         return Optional.ofNullable(getCurrentRequest())
                 .map(r -> (isEmpty(getCurrentRequest().getParameter(VERSION))
@@ -155,6 +181,31 @@ public class WebDAVServlet extends HttpServlet {
         return ("/api/metadata/").equalsIgnoreCase(getCurrentRequest().getRequestURI());
     }
 
+    /**
+     * Lets the servlet container send a range of a file once the request has been handled,
+     * so that it is copied to the socket by the OS (sendfile) instead of through the response stream.
+     * Not possible if the container does not support it, or if multiple ranges are requested,
+     * as the parts of a multipart response are separated by boundaries written to the response stream.
+     *
+     * @param start  the first byte to send
+     * @param finish the last byte to send, inclusive as in HTTP range requests, or null to send the rest of the file
+     * @return false if the content has to be written to the response stream instead
+     */
+    public static boolean sendFile(File file, long start, Long finish) {
+        var request = getCurrentRequest();
+        if (request == null
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))
+                || (request.getHeader("Range") != null && request.getHeader("Range").contains(","))
+                || !file.isFile()) {
+            return false;
+        }
+        var length = file.length();
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, finish != null ? Math.min(finish + 1, length) : length);
+        return true;
+    }
+
     public static BlobInfo getBlob() {
         return (BlobInfo) getCurrentRequest().getAttribute(BLOB_ATTRIBUTE);
     }
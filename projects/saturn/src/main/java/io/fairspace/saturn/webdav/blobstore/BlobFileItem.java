@@ -3,10 +3,21 @@ package io.fairspace.saturn.webdav.blobstore;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import io.milton.http.FileItem;
+import lombok.extern.log4j.Log4j2;
 
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+
+@Log4j2
 public class BlobFileItem implements FileItem {
     private final BlobInfo blob;
     private final String contentType;
@@ -26,6 +37,75 @@ public class BlobFileItem implements FileItem {
         headers = fileItem.getHeaders();
     }
 
+    /**
+     * Stores the contents of multiple uploaded files concurrently on the given executor.
+     * Returns the stored items under the same keys.
+     * If any of the files cannot be stored, the remaining uploads are cancelled and the blobs stored so far are
+     * discarded (when the store supports it).
+     */
+    public static Map<String, FileItem> storeAll(
+            Map<String, FileItem> files, BlobStore store, ExecutorService uploadExecutor) {
+        var result = new HashMap<String, FileItem>();
+        if (files.size() < 2) {
+            try {
+                files.forEach((key, file) -> result.put(key, new BlobFileItem(file, store)));
+            } catch (RuntimeException e) {
+                deleteAll(result.values(), store);
+                throw e;
+            }
+            return result;
+        }
+
+        var futures = new LinkedHashMap<String, Future<BlobFileItem>>();
+        files.forEach((key, file) -> futures.put(key, uploadExecutor.submit(() -> new BlobFileItem(file, store))));
+
+        try {
+            for (var entry : futures.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            discard(futures.values(), store);
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            discard(futures.values(), store);
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Discards the blobs of stored items, e.g. when the transaction they were uploaded for is aborted.
+     * See {@link BlobStore#discard(String)}.
+     */
+    public static void deleteAll(Collection<? extends FileItem> files, BlobStore store) {
+        for (var file : files) {
+            if (file instanceof BlobFileItem item) {
+                try {
+                    store.discard(item.blob.id);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Error deleting an orphaned blob {}", item.blob.id, e);
+                }
+            }
+        }
+    }
+
+    private static void discard(Collection<Future<BlobFileItem>> futures, BlobStore store) {
+        // Uploads that have not started yet are cancelled, the running ones are awaited so that none of the
+        // blobs they store is left behind
+        futures.forEach(future -> future.cancel(false));
+        var stored = new ArrayList<BlobFileItem>();
+        for (var future : futures) {
+            if (!future.isCancelled()) {
+                try {
+                    stored.add(getUninterruptibly(future));
+                } catch (ExecutionException ignore) {
+                }
+            }
+        }
+        deleteAll(stored, store);
+    }
+
     public BlobInfo getBlob() {
         return blob;
     }
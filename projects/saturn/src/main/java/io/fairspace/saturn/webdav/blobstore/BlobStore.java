@@ -1,5 +1,6 @@
 package io.fairspace.saturn.webdav.blobstore;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -15,6 +16,15 @@ public interface BlobStore {
 
     void read(String id, OutputStream out, long start, Long finish) throws IOException;
 
+    /**
+     * The local file holding a blob, so that it can be sent without being copied through the JVM.
+     *
+     * @return the file, or null if the blob is not stored in a local file
+     */
+    default File getFile(String id) {
+        return null;
+    }
+
     default BlobInfo store(InputStream in) throws IOException {
         try {
             var countingInputStream = new CountingInputStream(in);
@@ -36,4 +46,16 @@ public interface BlobStore {
     default boolean delete(String id) throws IOException {
         throw new RuntimeException("Cannot delete blob from read-only blob store");
     }
+
+    /**
+     * Discards a blob that has just been written but is not referenced anywhere,
+     * e.g. because the transaction it was uploaded for has been aborted.
+     * Unlike {@link #delete(String)}, this is also supported by stores that otherwise keep all blobs,
+     * as the transaction log never refers to such a blob. Does nothing by default.
+     *
+     * @return true if the blob has been removed
+     */
+    default boolean discard(String id) throws IOException {
+        return false;
+    }
 }
@@ -1,13 +1,22 @@
 package io.fairspace.saturn.webdav.blobstore;
 
 import java.io.*;
+import java.nio.file.Files;
 
 import io.milton.common.RangeUtils;
 import io.milton.http.Range;
+import lombok.extern.log4j.Log4j2;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.io.IOUtils.copyLarge;
 
+/**
+ * Stores blobs as files in a two-level directory layout based on the id prefix, e.g. {@code ab/cd/abcd...}.
+ * Blobs written before the layout was introduced live directly in the root directory and are still resolved;
+ * they can be moved into the sharded layout with {@link #migrateToShardedLayout()}.
+ */
+@Log4j2
 public class LocalBlobStore implements BlobStore {
     private final File dir;
 
@@ -21,11 +30,14 @@ public class LocalBlobStore implements BlobStore {
     @Override
     public String write(InputStream in) throws IOException {
         var id = randomUUID().toString();
-        var dest = new File(dir, id);
-        while (dest.exists()) {
+        while (legacyFile(id).exists() || shardedFile(id).exists()) {
             // The chance that this happens is zero, but we need to guarantee uniqueness.
             id = randomUUID().toString();
-            dest = new File(dir, id);
+        }
+        var dest = shardedFile(id);
+        var parent = dest.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Cannot create blob directory " + parent);
         }
         try (var out = new BufferedOutputStream(new FileOutputStream(dest))) {
             copyLarge(in, out);
@@ -38,9 +50,75 @@ public class LocalBlobStore implements BlobStore {
 
     @Override
     public void read(String id, OutputStream out, long start, Long finish) throws IOException {
-        var src = new File(dir, id);
-        try (var in = new BufferedInputStream(new FileInputStream(src))) {
+        try (var in = new BufferedInputStream(open(id))) {
             RangeUtils.writeRange(in, new Range(start, finish), out);
         }
     }
+
+    @Override
+    public boolean discard(String id) {
+        // The legacy location is tried first: a migration may move the blob to the sharded layout in between
+        return legacyFile(id).delete() || shardedFile(id).delete();
+    }
+
+    private InputStream open(String id) throws IOException {
+        try {
+            return new FileInputStream(getFile(id));
+        } catch (FileNotFoundException e) {
+            // The blob may have been moved to the sharded layout after its legacy location was resolved
+            var file = shardedFile(id);
+            if (!file.exists()) {
+                throw e;
+            }
+            return new FileInputStream(file);
+        }
+    }
+
+    /**
+     * Moves blobs stored in the legacy flat layout into the sharded layout.
+     * Safe to run while the store is in use: reads fall back to the legacy location until a blob has been moved,
+     * and retry the sharded location if the blob is moved while it is being opened.
+     *
+     * @return the number of migrated blobs
+     */
+    public long migrateToShardedLayout() throws IOException {
+        var count = 0L;
+        try (var files = Files.newDirectoryStream(dir.toPath(), Files::isRegularFile)) {
+            for (var file : files) {
+                var dest = shardedFile(file.getFileName().toString()).toPath();
+                Files.createDirectories(dest.getParent());
+                Files.move(file, dest, ATOMIC_MOVE);
+                if (++count % 100_000 == 0) {
+                    log.info("Migrated {} blobs to the sharded layout", count);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Resolves the file of a blob, in either the sharded or the legacy flat layout.
+     */
+    @Override
+    public File getFile(String id) {
+        var file = shardedFile(id);
+        return file.exists() ? file : legacyFile(id);
+    }
+
+    /**
+     * The file of a blob in the legacy flat layout.
+     */
+    protected File legacyFile(String id) {
+        return new File(dir, id);
+    }
+
+    /**
+     * The file of a blob in the sharded layout.
+     */
+    protected File shardedFile(String id) {
+        if (id.length() < 4) {
+            return new File(dir, id);
+        }
+        return new File(new File(new File(dir, id.substring(0, 2)), id.substring(2, 4)), id);
+    }
 }
@@ -1,5 +1,8 @@
 package io.fairspace.saturn.webdav.resources;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -12,15 +15,21 @@ import io.milton.property.PropertySource;
 import io.milton.resource.CollectionResource;
 import io.milton.resource.Resource;
 import lombok.extern.log4j.Log4j2;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
 
+import io.fairspace.saturn.rdf.CollectionNameIndex;
 import io.fairspace.saturn.vocabulary.FS;
 import io.fairspace.saturn.webdav.Access;
 import io.fairspace.saturn.webdav.AccessMode;
 import io.fairspace.saturn.webdav.DavFactory;
 import io.fairspace.saturn.webdav.Status;
 
+import static io.fairspace.saturn.rdf.CollectionNameIndex.COLLECTION_NAME_INDEX;
+import static io.fairspace.saturn.webdav.AccessMode.DataPublished;
+import static io.fairspace.saturn.webdav.AccessMode.MetadataPublished;
 import static io.fairspace.saturn.webdav.DavFactory.childSubject;
 import static io.fairspace.saturn.webdav.PathUtils.validateCollectionName;
 import static io.fairspace.saturn.webdav.WebDAVServlet.owner;
@@ -37,12 +46,57 @@ public class CollectionRootResource extends RootResource {
 
     @Override
     public List<? extends Resource> getChildren() {
-        return factory.rootSubject
-                .getModel()
-                .listSubjectsWithProperty(RDF.type, FS.Collection)
-                .mapWith(factory::getResource)
-                .filterDrop(Objects::isNull)
-                .filterKeep(r -> ((io.fairspace.saturn.webdav.resources.CollectionResource) r).access.canList())
+        return listableCollectionCandidates().stream()
+                .map(factory::getResource)
+                .filter(Objects::nonNull)
+                .filter(r -> ((io.fairspace.saturn.webdav.resources.CollectionResource) r).access.canList())
+                .toList();
+    }
+
+    /**
+     * Returns the collections the current user may be able to list, i.e. all collections for an admin,
+     * and otherwise the ones shared with the user or their workspaces, the ones owned by workspaces they manage
+     * and the published ones they are allowed to see.
+     * Computing the access of a collection is relatively expensive, so it is only done for these.
+     */
+    private Collection<org.apache.jena.rdf.model.Resource> listableCollectionCandidates() {
+        var model = factory.rootSubject.getModel();
+        var currentUser = factory.userService.currentUser();
+        if (currentUser.isAdmin()) {
+            return model.listSubjectsWithProperty(RDF.type, FS.Collection).toList();
+        }
+
+        var user = factory.currentUserResource();
+        var candidates = new LinkedHashSet<org.apache.jena.rdf.model.Resource>();
+        var principals = new ArrayList<org.apache.jena.rdf.model.Resource>();
+        principals.add(user);
+        principals.addAll(resources(user, FS.isMemberOf));
+        for (var ws : resources(user, FS.isManagerOf)) {
+            principals.add(ws);
+            candidates.addAll(model.listSubjectsWithProperty(FS.ownedBy, ws).toList());
+        }
+        for (var principal : principals) {
+            for (var permission : List.of(FS.canManage, FS.canWrite, FS.canRead, FS.canList)) {
+                candidates.addAll(resources(principal, permission));
+            }
+        }
+        if (currentUser.isCanViewPublicMetadata()) {
+            candidates.addAll(model.listSubjectsWithProperty(FS.accessMode, MetadataPublished.name())
+                    .toList());
+        }
+        if (currentUser.isCanViewPublicMetadata() || currentUser.isCanViewPublicData()) {
+            candidates.addAll(
+                    model.listSubjectsWithProperty(FS.accessMode, DataPublished.name()).toList());
+        }
+        candidates.removeIf(c -> !c.hasProperty(RDF.type, FS.Collection));
+        return candidates;
+    }
+
+    private static List<org.apache.jena.rdf.model.Resource> resources(
+            org.apache.jena.rdf.model.Resource subject, Property property) {
+        return subject.listProperties(property)
+                .filterKeep(stmt -> stmt.getObject().isResource())
+                .mapWith(Statement::getResource)
                 .toList();
     }
 
@@ -120,13 +174,21 @@ public class CollectionRootResource extends RootResource {
         }
     }
 
+    /**
+     * Looks up the candidates in the {@link CollectionNameIndex} if the dataset has one,
+     * and falls back to checking all collections otherwise.
+     */
     private Optional<Resource> findCollectionWithName(String name) {
-        return factory.rootSubject
-                .getModel()
-                .listSubjectsWithProperty(RDF.type, FS.Collection)
-                .mapWith(child -> factory.getResourceByType(child, Access.List))
-                .filterDrop(Objects::isNull)
-                .filterKeep(collection -> collection.getName().equals(name))
-                .nextOptional();
+        var model = factory.rootSubject.getModel();
+        CollectionNameIndex index = factory.context.get(COLLECTION_NAME_INDEX);
+        var candidates = index != null
+                ? index.lookup(name).stream().map(model::wrapAsResource).toList()
+                : model.listSubjectsWithProperty(RDF.type, FS.Collection).toList();
+        return candidates.stream()
+                .filter(child -> child.hasProperty(RDF.type, FS.Collection))
+                .map(child -> factory.getResourceByType(child, Access.List))
+                .filter(Objects::nonNull)
+                .filter(collection -> collection.getName().equals(name))
+                .findFirst();
     }
 }
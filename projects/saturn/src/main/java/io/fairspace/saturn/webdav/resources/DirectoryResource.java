@@ -9,9 +9,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import io.milton.http.Auth;
@@ -148,11 +149,8 @@ public class DirectoryResource extends BaseResource implements FolderResource, D
 
     @Override
     public List<? extends Resource> getChildren() {
-        return subject.getModel()
-                .listSubjectsWithProperty(FS.belongsTo, subject)
-                .mapWith(r -> factory.getResource(r, access))
-                .filterDrop(Objects::isNull)
-                .toList();
+        return factory.getResources(
+                subject.getModel().listSubjectsWithProperty(FS.belongsTo, subject).toList(), access);
     }
 
     @Override
@@ -247,12 +245,31 @@ public class DirectoryResource extends BaseResource implements FolderResource, D
         }
     }
 
+    private Map<String, Set<RDFNode>> indexClassMembers(org.apache.jena.rdf.model.Resource class_) {
+        var index = new HashMap<String, Set<RDFNode>>();
+        subject.getModel().listResourcesWithProperty(RDF.type, class_).forEachRemaining(r -> {
+            if (r.isURIResource()) {
+                index.computeIfAbsent(r.getURI(), k -> new LinkedHashSet<>()).add(r);
+            }
+            r.listProperties(RDFS.label)
+                    .mapWith(Statement::getObject)
+                    .filterKeep(label -> label.isLiteral()
+                            && label.asLiteral().getLanguage().isEmpty())
+                    .forEachRemaining(label -> index.computeIfAbsent(
+                                    label.asLiteral().getLexicalForm(), k -> new LinkedHashSet<>())
+                            .add(r));
+        });
+        return index;
+    }
+
     private void uploadMetadata(FileItem file) throws BadRequestException, ConflictException, NotAuthorizedException {
         if (file == null) {
             setErrorMessage("Missing 'file' parameter");
             throw new BadRequestException(this);
         }
         var model = createDefaultModel();
+        // Instances of referenced classes by IRI and label, built once per class for the whole upload
+        var classMembers = new HashMap<org.apache.jena.rdf.model.Resource, Map<String, Set<RDFNode>>>();
 
         try (var is = file.getInputStream();
                 var reader = new InputStreamReader(is);
@@ -342,12 +359,11 @@ public class DirectoryResource extends BaseResource implements FolderResource, D
 
                         for (var value : values) {
                             if (class_ != null) {
-                                var object = subject.getModel()
-                                        .listResourcesWithProperty(RDF.type, class_)
-                                        .filterKeep(r -> r.getURI().equals(value) || r.hasProperty(RDFS.label, value))
-                                        .toList();
+                                var object = classMembers
+                                        .computeIfAbsent(class_, this::indexClassMembers)
+                                        .getOrDefault(value, Set.of());
                                 if (object.size() == 1) {
-                                    model.add(s, property, object.get(0));
+                                    model.add(s, property, object.iterator().next());
                                 } else if (object.size() > 1) {
                                     setErrorMessage("Line " + csvParser.getCurrentLineNumber() + ". Object \"" + value
                                             + "\" of class " + "\"" + class_ + "\" is not unique.");
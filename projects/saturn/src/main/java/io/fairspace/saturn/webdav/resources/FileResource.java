@@ -76,7 +76,12 @@ public class FileResource extends BaseResource implements io.milton.resource.Fil
     @Override
     public void sendContent(OutputStream out, Range range, Map<String, String> params, String contentType)
             throws IOException, NotAuthorizedException, BadRequestException, NotFoundException {
-        factory.store.read(blobId, out, range != null ? range.getStart() : 0, range != null ? range.getFinish() : null);
+        long start = range != null ? range.getStart() : 0;
+        var finish = range != null ? range.getFinish() : null;
+        var file = factory.store.getFile(blobId);
+        if (file == null || !sendFile(file, start, finish)) {
+            factory.store.read(blobId, out, start, finish);
+        }
     }
 
     @Override
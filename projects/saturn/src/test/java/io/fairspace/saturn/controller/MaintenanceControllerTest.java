@@ -44,6 +44,15 @@ class MaintenanceControllerTest extends BaseControllerTest {
         verify(maintenanceService).compactRdfStorageTask();
     }
 
+    @Test
+    void testMigrateBlobStore() throws Exception {
+        doNothing().when(maintenanceService).startBlobStoreMigrationTask();
+
+        mockMvc.perform(post("/maintenance/migrate-blob-store").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNoContent()); // Expect 204 No Content
+        verify(maintenanceService).startBlobStoreMigrationTask();
+    }
+
     @Test
     void testGetStatusActive() throws Exception {
         when(maintenanceService.active()).thenReturn(true);
@@ -2,7 +2,9 @@ package io.fairspace.saturn.controller;
 
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -11,14 +13,19 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import io.fairspace.saturn.services.metadata.MetadataService;
 
+import static io.fairspace.saturn.controller.enums.CustomMediaType.APPLICATION_N_QUADS;
+import static io.fairspace.saturn.controller.enums.CustomMediaType.APPLICATION_N_TRIPLES;
 import static io.fairspace.saturn.controller.enums.CustomMediaType.TEXT_TURTLE;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -51,6 +58,24 @@ public class MetadataControllerTest extends BaseControllerTest {
                 .andExpect(header().string("Content-Type", TEXT_TURTLE + ";charset=UTF-8"));
     }
 
+    @Test
+    public void testGetMetadataAsNTriples() throws Exception {
+        Model mockModel = ModelFactory.createDefaultModel();
+        mockModel.add(
+                mockModel.createResource("http://example.com"),
+                mockModel.createProperty("http://example.com/property"),
+                "test-value");
+        Mockito.when(metadataService.get(eq("http://example.com"), eq(false))).thenReturn(mockModel);
+
+        mockMvc.perform(get("/metadata/")
+                        .param("subject", "http://example.com")
+                        .header("Accept", APPLICATION_N_TRIPLES))
+                .andExpect(status().isOk())
+                .andExpect(content()
+                        .string("<http://example.com> <http://example.com/property> \"test-value\" .\n"))
+                .andExpect(header().string("Content-Type", APPLICATION_N_TRIPLES + ";charset=UTF-8"));
+    }
+
     @Test
     public void testPutMetadata() throws Exception {
         String body =
@@ -82,6 +107,40 @@ public class MetadataControllerTest extends BaseControllerTest {
         Mockito.verify(metadataService).patch(any(Model.class), eq(false));
     }
 
+    @Test
+    public void testPatchMetadataParsesRequestBody() throws Exception {
+        String body = "<http://example.com/subject> <http://example.com/property> \"value\" .\n";
+
+        mockMvc.perform(patch("/metadata/").content(body).contentType(APPLICATION_N_TRIPLES))
+                .andExpect(status().isNoContent());
+
+        var captor = ArgumentCaptor.forClass(Model.class);
+        Mockito.verify(metadataService).patch(captor.capture(), eq(true));
+        assertEquals(1, captor.getValue().size());
+    }
+
+    @Test
+    public void testIngestMetadata() throws Exception {
+        String body = "<http://example.com/subject> <http://example.com/property> \"value\" .\n";
+
+        mockMvc.perform(post("/metadata/ingest")
+                        .content(body)
+                        .contentType(APPLICATION_N_QUADS)
+                        .param("chunkSize", "500")
+                        .param("doViewsUpdate", "false"))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(metadataService).ingest(any(), eq(Lang.NQUADS), eq(500), eq(false));
+    }
+
+    @Test
+    public void testIngestMetadataRejectsTurtle() throws Exception {
+        mockMvc.perform(post("/metadata/ingest").content("").contentType(TEXT_TURTLE))
+                .andExpect(status().isUnsupportedMediaType());
+
+        Mockito.verify(metadataService, Mockito.never()).ingest(any(), any(), anyInt(), any());
+    }
+
     @Test
     public void testDeleteMetadataBySubject() throws Exception {
         Mockito.when(metadataService.softDelete(any())).thenReturn(true);
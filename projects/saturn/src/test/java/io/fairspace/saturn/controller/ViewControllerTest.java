@@ -9,12 +9,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import io.fairspace.saturn.config.properties.ViewsProperties;
 import io.fairspace.saturn.controller.dto.CountDto;
 import io.fairspace.saturn.controller.dto.FacetDto;
+import io.fairspace.saturn.controller.dto.FacetsDto;
 import io.fairspace.saturn.controller.dto.ValueDto;
 import io.fairspace.saturn.controller.dto.ViewDto;
 import io.fairspace.saturn.controller.dto.ViewPageDto;
@@ -22,12 +25,17 @@ import io.fairspace.saturn.controller.dto.request.CountRequest;
 import io.fairspace.saturn.controller.dto.request.ViewRequest;
 import io.fairspace.saturn.services.views.QueryService;
 import io.fairspace.saturn.services.views.ViewService;
+import io.fairspace.saturn.services.views.ViewService.Versioned;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,14 +51,14 @@ public class ViewControllerTest extends BaseControllerTest {
     @MockBean(name = "queryService")
     private QueryService queryService;
 
-    @Autowired
+    @SpyBean
     private ObjectMapper objectMapper;
 
     @Test
     public void testGetViewsSuccess() throws Exception {
         var viewDto = new ViewDto("view1", "View 1", List.of(), 100L);
 
-        when(viewService.getViews()).thenReturn(List.of(viewDto));
+        when(viewService.getVersionedViews()).thenReturn(new Versioned<>(List.of(viewDto), 1));
 
         mockMvc.perform(get("/views/").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -98,7 +106,7 @@ public class ViewControllerTest extends BaseControllerTest {
         // Mock data for getFacets
         var facetDto = new FacetDto("facet1", "Facet 1", ViewsProperties.ColumnType.Set, List.of(), null, null, null);
 
-        when(viewService.getFacets()).thenReturn(List.of(facetDto));
+        when(viewService.getVersionedFacets()).thenReturn(new Versioned<>(List.of(facetDto), 1));
 
         mockMvc.perform(get("/views/facets").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
@@ -109,6 +117,61 @@ public class ViewControllerTest extends BaseControllerTest {
                         "$.facets[0].type", is(ViewsProperties.ColumnType.Set.getName()))); // Empty options list
     }
 
+    @Test
+    public void testGetFacetsIsNotModifiedWhenETagMatches() throws Exception {
+        var facetDto = new FacetDto("facet2", "Facet 2", ViewsProperties.ColumnType.Set, List.of(), null, null, null);
+        when(viewService.getVersionedFacets()).thenReturn(new Versioned<>(List.of(facetDto), 2));
+
+        var etag = mockMvc.perform(get("/views/facets"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.facets[0].name", is("facet2")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/views/facets"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.facets[0].name", is("facet2")));
+        mockMvc.perform(get("/views/facets").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(objectMapper).writeValueAsBytes(any(FacetsDto.class));
+    }
+
+    @Test
+    public void testGetViewsIsModifiedAfterCacheRefresh() throws Exception {
+        when(viewService.getVersionedViews())
+                .thenReturn(new Versioned<>(List.of(new ViewDto("view3", "View 3", List.of(), 100L)), 3));
+        var etag = mockMvc.perform(get("/views/"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/views/").header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+
+        when(viewService.getVersionedViews())
+                .thenReturn(new Versioned<>(List.of(new ViewDto("view4", "View 4", List.of(), 100L)), 4));
+        mockMvc.perform(get("/views/").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.views[0].name", is("view4")));
+    }
+
+    @Test
+    public void testGetFacetsKeepsTheETagWhenARefreshDoesNotChangeThem() throws Exception {
+        var facetDto = new FacetDto("facet5", "Facet 5", ViewsProperties.ColumnType.Set, List.of(), null, null, null);
+        when(viewService.getVersionedFacets()).thenReturn(new Versioned<>(List.of(facetDto), 5));
+        var etag = mockMvc.perform(get("/views/facets"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        when(viewService.getVersionedFacets()).thenReturn(new Versioned<>(List.of(facetDto), 6));
+        mockMvc.perform(get("/views/facets").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     public void testCountSuccess() throws Exception {
         // Mock request body and response
@@ -1,6 +1,11 @@
 package io.fairspace.saturn.controller;
 
+import java.io.OutputStream;
+
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -9,8 +14,18 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 
+import io.fairspace.saturn.services.metadata.Serialization;
+
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.riot.RDFDataMgr.loadModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mockStatic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -20,6 +35,9 @@ class VocabularyControllerTest extends BaseControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private Model vocabulary;
+
     @TestConfiguration
     static class CustomVocabularyConfig {
         @Bean
@@ -34,4 +52,63 @@ class VocabularyControllerTest extends BaseControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/ld+json"));
     }
+
+    @Test
+    void testRepeatedRequestsAreServedFromTheCache() throws Exception {
+        try (var serialization = mockStatic(Serialization.class, CALLS_REAL_METHODS)) {
+            var etag = mockMvc.perform(get("/vocabulary/").header(HttpHeaders.ACCEPT, "application/n-triples"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andReturn()
+                    .getResponse()
+                    .getHeader(HttpHeaders.ETAG);
+
+            mockMvc.perform(get("/vocabulary/").header(HttpHeaders.ACCEPT, "application/n-triples"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag));
+            mockMvc.perform(get("/vocabulary/")
+                            .header(HttpHeaders.ACCEPT, "application/n-triples")
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().bytes(new byte[0]));
+
+            serialization.verify(
+                    () -> Serialization.serialize(any(Model.class), eq(RDFFormat.NTRIPLES), any(OutputStream.class)));
+        }
+    }
+
+    @Test
+    void testModifyingTheVocabularyInvalidatesTheCache() throws Exception {
+        var etag = mockMvc.perform(get("/vocabulary/").header(HttpHeaders.ACCEPT, "text/turtle"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        vocabulary.add(createResource("http://example.com/Class"), RDF.type, RDFS.Class);
+
+        var newEtag = mockMvc.perform(get("/vocabulary/")
+                        .header(HttpHeaders.ACCEPT, "text/turtle")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    void testTheEtagOnlyDependsOnTheContent() throws Exception {
+        vocabulary.add(createResource("http://example.com/OtherClass"), RDF.type, RDFS.Class);
+        var etag = mockMvc.perform(get("/vocabulary/").header(HttpHeaders.ACCEPT, "text/turtle"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        // A new instance, as after a restart or on another replica, has not seen the modification
+        var restarted = new VocabularyController(vocabulary);
+
+        assertEquals(etag, restarted.getVocabulary("text/turtle").getHeaders().getETag());
+    }
 }
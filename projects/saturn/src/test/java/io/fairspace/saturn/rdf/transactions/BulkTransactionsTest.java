@@ -1,9 +1,13 @@
 package io.fairspace.saturn.rdf.transactions;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.pivovarit.function.ThrowingFunction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.jena.query.TxnType;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.sparql.JenaTransactionException;
@@ -15,6 +19,9 @@ import org.mockito.junit.MockitoJUnitRunner;
 import static org.apache.jena.query.DatasetFactory.createTxnMem;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BulkTransactionsTest {
@@ -75,6 +82,130 @@ public class BulkTransactionsTest {
         });
     }
 
+    @Test
+    public void failedTaskIsIsolatedFromTheRestOfTheBatch() throws Exception {
+        var ds = spy(createTxnMem());
+        var bulk = new BulkTransactions(ds);
+        var executions = new AtomicInteger();
+        var failures = new AtomicInteger();
+
+        // Keep the worker busy, so that all the tasks below end up in a single batch in a known order
+        var release = new CountDownLatch(1);
+        var blocker = block(bulk, release);
+
+        var threads = new ArrayList<Thread>();
+        for (var i = 0; i < 100; i++) {
+            var label = "task " + i;
+            var fail = i == 50;
+            var thread = new Thread(() -> {
+                try {
+                    bulk.executeWrite(m -> {
+                        executions.incrementAndGet();
+                        m.add(RESOURCE, RDFS.label, label);
+                        if (fail) {
+                            throw new RuntimeException();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            });
+            threads.add(startQueued(thread));
+        }
+
+        release.countDown();
+        blocker.join();
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        // blocker, failed attempt, 50 tasks before the failed one, 49 tasks after it
+        verify(ds, times(4)).begin(TxnType.WRITE);
+        assertEquals(150, executions.get());
+        assertEquals(1, failures.get());
+        bulk.executeRead(model -> {
+            assertEquals(99, model.listObjectsOfProperty(RESOURCE, RDFS.label).toList().size());
+            assertFalse(model.contains(RESOURCE, RDFS.label, "task 50"));
+        });
+        bulk.close();
+    }
+
+    @Test
+    public void batchesAreLimitedToMaxBatchSize() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var bulk = new BulkTransactions(createTxnMem(), 10, 0, registry);
+
+        var release = new CountDownLatch(1);
+        var blocker = block(bulk, release);
+        var threads = new ArrayList<Thread>();
+        for (var i = 0; i < 25; i++) {
+            var label = "task " + i;
+            threads.add(startQueued(new Thread(() -> bulk.executeWrite(m -> m.add(RESOURCE, RDFS.label, label)))));
+        }
+        assertEquals(25.0, registry.get("saturn.transactions.queue.size").gauge().value(), 0);
+
+        release.countDown();
+        blocker.join();
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        // blocker, 10, 10 and 5 tasks
+        var batchSize = registry.get("saturn.transactions.batch.size").summary();
+        assertEquals(4, batchSize.count());
+        assertEquals(10.0, batchSize.max(), 0);
+        assertEquals(26.0, batchSize.totalAmount(), 0);
+        assertEquals(26, registry.get("saturn.transactions.task.wait").timer().count());
+        assertEquals(26, registry.get("saturn.transactions.task.execute").timer().count());
+        assertEquals(0.0, registry.get("saturn.transactions.queue.size").gauge().value(), 0);
+        bulk.close();
+    }
+
+    @Test
+    public void tasksArrivingWithinMaxBatchWaitAreBatched() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var bulk = new BulkTransactions(createTxnMem(), 10, 1_000, registry);
+
+        var first = new Thread(() -> bulk.executeWrite(m -> m.add(RESOURCE, RDFS.label, "first")));
+        var second = new Thread(() -> bulk.executeWrite(m -> m.add(RESOURCE, RDFS.label, "second")));
+        first.start();
+        Thread.sleep(50);
+        second.start();
+        first.join();
+        second.join();
+
+        var batchSize = registry.get("saturn.transactions.batch.size").summary();
+        assertEquals(1, batchSize.count());
+        assertEquals(2.0, batchSize.totalAmount(), 0);
+        bulk.close();
+    }
+
+    // occupies the worker until released
+    private static Thread block(BulkTransactions bulk, CountDownLatch release) throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var blocker = new Thread(() -> {
+            try {
+                bulk.executeWrite(m -> {
+                    started.countDown();
+                    release.await();
+                });
+            } catch (InterruptedException ignore) {
+            }
+        });
+        blocker.start();
+        started.await();
+        return blocker;
+    }
+
+    // starts a thread submitting a task and waits until the task is queued
+    private static Thread startQueued(Thread thread) throws InterruptedException {
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
     // executes actions in one batch
     private void batch(ThrowingFunction<Model, ?, ?>... jobs) {
         try {
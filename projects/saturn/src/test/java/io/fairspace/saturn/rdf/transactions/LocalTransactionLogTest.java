@@ -10,6 +10,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readString;
+import static java.nio.file.Files.writeString;
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.apache.commons.io.FileUtils.getTempDirectory;
@@ -75,4 +78,67 @@ public class LocalTransactionLogTest {
         assertEquals(0L, log.size());
         assertFalse(new File(new File(new File(logDir, "volume-1"), "chapter-1"), "tx-1").exists());
     }
+
+    @Test
+    public void checkpointIsUpdatedOnCommit() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            log.onBegin();
+            log.onMetadata(null, null, 0);
+            log.onCommit();
+        }
+
+        assertEquals("3", readString(new File(logDir, "checkpoint").toPath(), UTF_8));
+    }
+
+    @Test
+    public void sizeOfALargeLogIsReadFromTheCheckpoint() throws IOException {
+        // Simulates a log of 1000 chapters with 1000 transactions each.
+        // Only the last chapter is created, it's the only one which needs to be looked at.
+        var lastChapter = new File(new File(logDir, "volume-1"), "chapter-1000");
+        lastChapter.mkdirs();
+        for (int i = 999_001; i <= 1_000_000; i++) {
+            new File(lastChapter, "tx-" + i).createNewFile();
+        }
+        writeString(new File(logDir, "checkpoint").toPath(), "1000000", UTF_8);
+
+        var start = System.currentTimeMillis();
+        var largeLog = new LocalTransactionLog(logDir, codec);
+        var duration = System.currentTimeMillis() - start;
+
+        assertEquals(1_000_000L, largeLog.size());
+        assertTrue("Startup took " + duration + "ms", duration < 1_000);
+    }
+
+    @Test
+    public void outdatedCheckpointIsIgnored() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            log.onBegin();
+            log.onMetadata(null, null, 0);
+            log.onCommit();
+        }
+        // e.g. the application stopped after a transaction was committed, but before the checkpoint was updated
+        writeString(new File(logDir, "checkpoint").toPath(), "2", UTF_8);
+
+        var newLog = new LocalTransactionLog(logDir, codec);
+
+        assertEquals(3L, newLog.size());
+        assertEquals("3", readString(new File(logDir, "checkpoint").toPath(), UTF_8));
+    }
+
+    @Test
+    public void failureToWriteTheCheckpointDoesNotFailTheCommit() throws IOException {
+        log.onBegin();
+        log.onMetadata(null, null, 0);
+        log.onCommit();
+        // The new checkpoint cannot be written over a directory
+        new File(logDir, "checkpoint.new").mkdir();
+
+        log.onBegin();
+        log.onMetadata(null, null, 1);
+        log.onCommit();
+
+        assertEquals(2L, log.size());
+        assertFalse(new File(logDir, "checkpoint").exists());
+        assertEquals(2L, new LocalTransactionLog(logDir, codec).size());
+    }
 }
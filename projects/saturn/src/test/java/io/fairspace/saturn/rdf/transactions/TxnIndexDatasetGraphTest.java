@@ -0,0 +1,121 @@
+package io.fairspace.saturn.rdf.transactions;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.fairspace.saturn.config.properties.ViewsProperties;
+import io.fairspace.saturn.services.views.ViewStoreClient;
+import io.fairspace.saturn.services.views.ViewStoreClientFactory;
+import io.fairspace.saturn.vocabulary.FS;
+
+import static io.fairspace.saturn.TestUtils.setupRequestContext;
+import static io.fairspace.saturn.services.users.UserService.currentUserAsSymbol;
+
+import static org.apache.jena.sparql.core.DatasetGraphFactory.createTxnMem;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TxnIndexDatasetGraphTest {
+    private static final Quad QUAD = new Quad(
+            Quad.defaultGraphIRI, NodeFactory.createURI("http://localhost/iri/1"), RDF.type.asNode(), FS.File.asNode());
+
+    @Mock
+    private ViewStoreClientFactory viewStoreClientFactory;
+
+    @Mock
+    private ViewStoreClient viewStoreClient;
+
+    private DatasetGraph base;
+    private TxnIndexDatasetGraph dsg;
+
+    @Before
+    public void before() {
+        setupRequestContext();
+        base = createTxnMem();
+        dsg = new TxnIndexDatasetGraph(new ViewsProperties(), base, viewStoreClientFactory, "http://localhost");
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void viewsAreUpdatedAfterTheWriteLockIsReleased() throws Exception {
+        base.getContext().set(currentUserAsSymbol(), true);
+        var otherWriterFinished = new AtomicBoolean();
+        when(viewStoreClientFactory.build()).thenAnswer(invocation -> {
+            var otherWriter = new Thread(() -> {
+                base.begin(ReadWrite.WRITE);
+                base.commit();
+                base.end();
+                otherWriterFinished.set(true);
+            });
+            otherWriter.start();
+            otherWriter.join(5_000);
+            return viewStoreClient;
+        });
+
+        dsg.begin(ReadWrite.WRITE);
+        dsg.add(QUAD);
+        dsg.commit();
+        dsg.end();
+
+        assertTrue("Another writer should not wait for the views update", otherWriterFinished.get());
+        verify(viewStoreClient).commit();
+    }
+
+    @Test
+    public void viewsAreNotUpdatedUnlessRequested() throws Exception {
+        base.getContext().set(currentUserAsSymbol(), false);
+
+        dsg.begin(ReadWrite.WRITE);
+        dsg.add(QUAD);
+        dsg.commit();
+        dsg.end();
+
+        verify(viewStoreClientFactory, never()).build();
+    }
+
+    @Test
+    public void failedViewsUpdateDoesNotFailTheCommitAndIsRetried() throws Exception {
+        base.getContext().set(currentUserAsSymbol(), true);
+        when(viewStoreClientFactory.build())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(viewStoreClient);
+
+        dsg.begin(ReadWrite.WRITE);
+        dsg.add(QUAD);
+        dsg.commit();
+        dsg.end();
+
+        dsg.begin(ReadWrite.READ);
+        assertTrue(dsg.contains(QUAD));
+        dsg.end();
+
+        // The failed subject is updated with the next transaction, even if that one changes nothing
+        dsg.begin(ReadWrite.WRITE);
+        dsg.commit();
+        dsg.end();
+
+        verify(viewStoreClientFactory, times(2)).build();
+        verify(viewStoreClient).commit();
+    }
+}
@@ -2,6 +2,7 @@ package io.fairspace.saturn.rdf.transactions;
 
 import java.io.IOException;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.rdf.model.Statement;
@@ -23,6 +24,8 @@ import static org.apache.jena.sparql.core.DatasetGraphFactory.createTxnMem;
 import static org.apache.jena.sparql.core.Quad.defaultGraphNodeGenerated;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -129,4 +132,43 @@ public class TxnLogDatasetGraphTest {
                         statement.getObject().asNode());
         verify(log).onAbort();
     }
+
+    @Test
+    public void shouldLogBatchedWritesOfDifferentUsersAsOneTransaction() throws Exception {
+        var bulk = new BulkTransactions(ds, 10, 1_000, new SimpleMeterRegistry());
+        var first = new Thread(() -> {
+            setupRequestContext("user1");
+            bulk.executeWrite(m -> m.add(statement));
+        });
+        var second = new Thread(() -> {
+            setupRequestContext("user2");
+            bulk.executeWrite(m -> m.remove(statement));
+        });
+        first.start();
+        Thread.sleep(50);
+        second.start();
+        first.join();
+        second.join();
+
+        var inOrder = inOrder(log);
+        inOrder.verify(log).onBegin();
+        inOrder.verify(log).onMetadata(eq("user1"), eq("fullname"), anyLong());
+        inOrder.verify(log)
+                .onAdd(
+                        defaultGraphNodeGenerated,
+                        statement.getSubject().asNode(),
+                        statement.getPredicate().asNode(),
+                        statement.getObject().asNode());
+        inOrder.verify(log).onMetadata(eq("user2"), eq("fullname"), anyLong());
+        inOrder.verify(log)
+                .onDelete(
+                        defaultGraphNodeGenerated,
+                        statement.getSubject().asNode(),
+                        statement.getPredicate().asNode(),
+                        statement.getObject().asNode());
+        inOrder.verify(log).onCommit();
+        verify(log, times(1)).onBegin();
+        verify(log, times(1)).onCommit();
+        bulk.close();
+    }
 }
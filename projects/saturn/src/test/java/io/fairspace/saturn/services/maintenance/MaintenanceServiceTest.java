@@ -13,6 +13,8 @@ import io.fairspace.saturn.services.users.User;
 import io.fairspace.saturn.services.users.UserService;
 import io.fairspace.saturn.services.views.ViewService;
 import io.fairspace.saturn.services.views.ViewStoreClientFactory;
+import io.fairspace.saturn.webdav.blobstore.DeletableLocalBlobStore;
+import io.fairspace.saturn.webdav.blobstore.LocalBlobStore;
 
 import static io.fairspace.saturn.TestUtils.loadViewsConfig;
 import static io.fairspace.saturn.services.maintenance.MaintenanceService.MAINTENANCE_IS_IN_PROGRESS;
@@ -34,8 +36,17 @@ public class MaintenanceServiceTest {
     private final ViewStoreClientFactory viewStoreClientFactory = mock(ViewStoreClientFactory.class);
     private final ViewService viewService = mock(ViewService.class);
     private final ViewsProperties viewsProperties = loadViewsConfig("src/test/resources/test-views.yaml");
+    private final LocalBlobStore blobStore = mock(LocalBlobStore.class);
+    private final DeletableLocalBlobStore extraBlobStore = mock(DeletableLocalBlobStore.class);
     private final MaintenanceService sut = spy(new MaintenanceService(
-            viewsProperties, userService, dataset, viewStoreClientFactory, viewService, "localhost"));
+            viewsProperties,
+            userService,
+            dataset,
+            viewStoreClientFactory,
+            viewService,
+            "localhost",
+            blobStore,
+            extraBlobStore));
 
     @Test
     public void testReindexingIsNotAllowedForNotAdmins() {
@@ -92,4 +103,33 @@ public class MaintenanceServiceTest {
         verify(sut).recreateIndex();
         verify(viewService).refreshCaches();
     }
+
+    @Test
+    public void testBlobStoreMigrationIsNotAllowedForNotAdmins() {
+        // give
+        var currentUser = new User();
+        currentUser.setAdmin(false);
+        when(userService.currentUser()).thenReturn(currentUser);
+
+        // when/then
+        assertThrows(AccessDeniedException.class, sut::startBlobStoreMigrationTask);
+    }
+
+    @Test
+    public void testBlobStoreMigrationIsExecuted() throws Exception {
+        // give
+        var currentUser = new User();
+        currentUser.setAdmin(true);
+        when(userService.currentUser()).thenReturn(currentUser);
+
+        doReturn(false).when(sut).active();
+
+        // when
+        sut.startBlobStoreMigrationTask();
+        Thread.sleep(500);
+
+        // then
+        verify(blobStore).migrateToShardedLayout();
+        verify(extraBlobStore).migrateToShardedLayout();
+    }
 }
@@ -1,5 +1,6 @@
 package io.fairspace.saturn.services.metadata;
 
+import java.io.ByteArrayInputStream;
 import java.util.List;
 
 import org.apache.jena.query.Dataset;
@@ -7,6 +8,8 @@ import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RiotException;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
@@ -19,6 +22,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import io.fairspace.saturn.rdf.transactions.SimpleTransactions;
 import io.fairspace.saturn.rdf.transactions.Transactions;
+import io.fairspace.saturn.services.AccessDeniedException;
 import io.fairspace.saturn.services.metadata.validation.ComposedValidator;
 import io.fairspace.saturn.services.metadata.validation.UniqueLabelValidator;
 import io.fairspace.saturn.services.metadata.validation.ValidationException;
@@ -29,6 +33,7 @@ import static io.fairspace.saturn.TestUtils.setupRequestContext;
 import static io.fairspace.saturn.rdf.ModelUtils.modelOf;
 import static io.fairspace.saturn.vocabulary.FS.NS;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.jena.query.DatasetFactory.createTxnMem;
 import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
@@ -40,8 +45,11 @@ import static org.apache.jena.rdf.model.ResourceFactory.createStringLiteral;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -312,4 +320,125 @@ public class MetadataServiceTest {
         assertTrue(ds.getDefaultModel().contains(STMT1.getSubject(), FS.modifiedBy));
         assertTrue(ds.getDefaultModel().contains(STMT1.getSubject(), FS.dateModified));
     }
+
+    @Test
+    public void testIngestAddsStatementsInChunks() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        var body = new StringBuilder();
+        for (var i = 0; i < 10; i++) {
+            body.append("<http://localhost/iri/S%d> <%s> <%s> .\n".formatted(i, P1, S1));
+        }
+
+        var count = api.ingest(new ByteArrayInputStream(body.toString().getBytes(UTF_8)), Lang.NQUADS, 4, false);
+
+        assertEquals(10, count);
+        // one write transaction per chunk of at most 4 statements
+        verify(txn, times(3)).setContextValue(UserService.currentUserAsSymbol(), Boolean.FALSE);
+        txn.executeRead(m -> {
+            for (var i = 0; i < 10; i++) {
+                assertTrue(m.contains(createResource("http://localhost/iri/S" + i), P1, S1));
+                assertTrue(m.contains(createResource("http://localhost/iri/S" + i), FS.createdBy));
+            }
+        });
+    }
+
+    @Test
+    public void testIngestKeepsChunksBeforeAnInvalidOne() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        var body = "<%s> <%s> <%s> .\n<%s> <%s> \"Test\" .\n<%s> <%s> <%s> .\n<%s> <%s> \"Test\" .\n"
+                .formatted(S1, RDF.type, FS.Workspace, S1, RDFS.label, S2, RDF.type, FS.Workspace, S2, RDFS.label);
+
+        assertThrows(
+                ValidationException.class,
+                () -> api.ingest(new ByteArrayInputStream(body.getBytes(UTF_8)), Lang.NTRIPLES, 2, false));
+
+        txn.executeRead(m -> {
+            assertTrue(m.contains(S1, RDFS.label, "Test"));
+            assertFalse(m.contains(S2, RDFS.label, "Test"));
+        });
+    }
+
+    @Test
+    public void testIngestTrimsLabelsBeforeValidation() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        txn.executeWrite(m -> m.add(S1, RDF.type, FS.Workspace).add(S1, RDFS.label, "Test"));
+        var duplicate =
+                "<%s> <%s> <%s> .\n<%s> <%s> \" Test \" .\n".formatted(S2, RDF.type, FS.Workspace, S2, RDFS.label);
+
+        assertThrows(
+                ValidationException.class,
+                () -> api.ingest(new ByteArrayInputStream(duplicate.getBytes(UTF_8)), Lang.NTRIPLES, 10, false));
+
+        var unique =
+                "<%s> <%s> <%s> .\n<%s> <%s> \" Other \" .\n".formatted(S2, RDF.type, FS.Workspace, S2, RDFS.label);
+        api.ingest(new ByteArrayInputStream(unique.getBytes(UTF_8)), Lang.NTRIPLES, 10, false);
+
+        txn.executeRead(m -> assertTrue(m.contains(S2, RDFS.label, "Other")));
+    }
+
+    @Test
+    public void testIngestRejectsNamedGraphs() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        var body = "<%s> <%s> <%s> .\n<%s> <%s> <%s> <http://localhost/g> .\n".formatted(S1, P1, S2, S2, P1, S1);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> api.ingest(new ByteArrayInputStream(body.getBytes(UTF_8)), Lang.NQUADS, 1, false));
+
+        txn.executeRead(m -> {
+            assertTrue(m.contains(S1, P1, S2));
+            assertFalse(m.contains(S2, P1, S1));
+        });
+    }
+
+    @Test
+    public void testIngestDoesNotCommitThePartialChunkBeforeARejectedQuad() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        var body = "<%s> <%s> <%s> .\n<%s> <%s> <%s> <http://localhost/g> .\n".formatted(S1, P1, S2, S2, P1, S1);
+
+        var e = assertThrows(
+                IllegalArgumentException.class,
+                () -> api.ingest(new ByteArrayInputStream(body.getBytes(UTF_8)), Lang.NQUADS, 10, false));
+
+        assertTrue(e.getMessage().startsWith("Named graphs are not supported"));
+        verify(txn, never()).setContextValue(UserService.currentUserAsSymbol(), Boolean.FALSE);
+        txn.executeRead(m -> assertFalse(m.contains(S1, P1, S2)));
+    }
+
+    @Test
+    public void testIngestDoesNotCommitThePartialChunkBeforeASyntaxError() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        var body = "<%s> <%s> <%s> .\n<%s> <%s> <%s> .\nnot a triple\n".formatted(S1, P1, S2, S2, P1, S1);
+
+        assertThrows(
+                RiotException.class,
+                () -> api.ingest(new ByteArrayInputStream(body.getBytes(UTF_8)), Lang.NTRIPLES, 10, false));
+
+        verify(txn, never()).setContextValue(UserService.currentUserAsSymbol(), Boolean.FALSE);
+        txn.executeRead(m -> {
+            assertFalse(m.contains(S1, P1, S2));
+            assertFalse(m.contains(S2, P1, S1));
+        });
+    }
+
+    @Test
+    public void testIngestValidatesARejectedChunkOnce() {
+        when(permissions.canIngestMetadata()).thenReturn(true);
+        txn.executeWrite(m -> m.add(S1, RDF.type, FS.Workspace).add(S1, RDFS.label, "Test"));
+        var body = "<%s> <%s> <%s> .\n<%s> <%s> \"Test\" .\n<%s> <%s> <%s> .\n"
+                .formatted(S2, RDF.type, FS.Workspace, S2, RDFS.label, S3, P1, S1);
+
+        assertThrows(
+                ValidationException.class,
+                () -> api.ingest(new ByteArrayInputStream(body.getBytes(UTF_8)), Lang.NTRIPLES, 2, false));
+
+        // one write for the setup, one for the rejected chunk
+        verify(txn, times(2)).executeWrite(any());
+        txn.executeRead(m -> assertFalse(m.contains(S3, P1, S1)));
+    }
+
+    @Test(expected = AccessDeniedException.class)
+    public void testIngestIsOnlyAllowedForAdmins() {
+        api.ingest(new ByteArrayInputStream(new byte[0]), Lang.NTRIPLES, 100, false);
+    }
 }
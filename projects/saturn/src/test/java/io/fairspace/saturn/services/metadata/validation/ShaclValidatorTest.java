@@ -8,6 +8,7 @@ import org.apache.jena.shacl.vocabulary.SHACLM;
 import org.apache.jena.sparql.vocabulary.FOAF;
 import org.apache.jena.vocabulary.RDF;
 import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,6 +29,7 @@ import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 import static org.apache.jena.riot.RDFDataMgr.loadModel;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -38,6 +40,13 @@ public class ShaclValidatorTest {
     private static final Resource resource2 = createResource("http://example.com/234");
     private static final Resource closedClass = createResource("http://example.com/ClosedClass");
     private static final Resource closedClassShape = createResource("http://example.com/ClosedClassShape");
+    private static final Resource openClass = createResource("http://example.com/OpenClass");
+    private static final Resource openClassShape = createResource("http://example.com/OpenClassShape");
+    private static final Property numberProperty = createProperty("http://example.com/number");
+    private static final Property otherNumberProperty = createProperty("http://example.com/otherNumber");
+    private static final Resource subjectsOfShape = createResource("http://example.com/SubjectsOfShape");
+    private static final Property triggerProperty = createProperty("http://example.com/trigger");
+    private static final Property requiredProperty = createProperty("http://example.com/required");
 
     private ShaclValidator validator;
 
@@ -46,11 +55,26 @@ public class ShaclValidatorTest {
 
     @Before
     public void setUp() {
-        Model vocabulary = loadModel("system-vocabulary.ttl")
-                .union(createDefaultModel()
-                        .add(closedClassShape, RDF.type, SHACLM.NodeShape)
-                        .add(closedClassShape, SHACLM.targetClass, closedClass)
-                        .add(closedClassShape, SHACLM.closed, createTypedLiteral(true)));
+        var customShapes = createDefaultModel()
+                .add(closedClassShape, RDF.type, SHACLM.NodeShape)
+                .add(closedClassShape, SHACLM.targetClass, closedClass)
+                .add(closedClassShape, SHACLM.closed, createTypedLiteral(true));
+        customShapes
+                .add(openClassShape, RDF.type, SHACLM.NodeShape)
+                .add(openClassShape, SHACLM.targetClass, openClass)
+                .add(openClassShape, SHACLM.property, propertyShape(customShapes, numberProperty))
+                .add(openClassShape, SHACLM.property, propertyShape(customShapes, otherNumberProperty));
+        customShapes
+                .add(subjectsOfShape, RDF.type, SHACLM.NodeShape)
+                .add(subjectsOfShape, SHACLM.targetSubjectsOf, triggerProperty)
+                .add(
+                        subjectsOfShape,
+                        SHACLM.property,
+                        customShapes
+                                .createResource()
+                                .addProperty(SHACLM.path, requiredProperty)
+                                .addLiteral(SHACLM.minCount, 1));
+        Model vocabulary = loadModel("system-vocabulary.ttl").union(customShapes);
 
         validator = new ShaclValidator(vocabulary);
     }
@@ -231,6 +255,40 @@ public class ShaclValidatorTest {
         verifyNoMoreInteractions(violationHandler);
     }
 
+    @Test
+    public void onlyShapesWithChangedPathsAreValidated() {
+        var before = modelOf(
+                resource1, RDF.type, openClass, resource1, numberProperty, createStringLiteral("not a number"));
+
+        var toAdd = modelOf(resource1, otherNumberProperty, createTypedLiteral(1));
+        validator.validate(before, before.union(toAdd), EMPTY_MODEL, toAdd, violationHandler);
+
+        verifyNoInteractions(violationHandler);
+
+        toAdd = modelOf(resource1, numberProperty, createTypedLiteral(2));
+        validator.validate(before, before.union(toAdd), EMPTY_MODEL, toAdd, violationHandler);
+
+        expect(resource1, numberProperty, createStringLiteral("not a number"));
+
+        verifyNoMoreInteractions(violationHandler);
+    }
+
+    @Test
+    public void shapesTargetingSubjectsOfAChangedPredicateAreValidated() {
+        var toAdd = modelOf(resource2, triggerProperty, createStringLiteral("value"));
+        validator.validate(EMPTY_MODEL, toAdd, EMPTY_MODEL, toAdd, violationHandler);
+
+        verify(violationHandler)
+                .onViolation(anyString(), eq(asNode(resource2)), eq(asNode(requiredProperty)), isNull());
+        verifyNoMoreInteractions(violationHandler);
+    }
+
+    private static Resource propertyShape(Model model, Property path) {
+        return model.createResource()
+                .addProperty(SHACLM.path, path)
+                .addProperty(SHACLM.datatype, XSD.xint);
+    }
+
     private void expect(Resource subject, Property predicate, RDFNode object) {
         verify(violationHandler)
                 .onViolation(anyString(), eq(asNode(subject)), eq(asNode(predicate)), eq(asNode(object)));
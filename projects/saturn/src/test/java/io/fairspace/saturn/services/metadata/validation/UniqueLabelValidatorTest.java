@@ -0,0 +1,124 @@
+package io.fairspace.saturn.services.metadata.validation;
+
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import io.fairspace.saturn.vocabulary.FS;
+
+import static io.fairspace.saturn.rdf.ModelUtils.EMPTY_MODEL;
+import static io.fairspace.saturn.services.metadata.validation.UniqueLabelValidator.BATCH_THRESHOLD;
+
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.apache.jena.rdf.model.ResourceFactory.createPlainLiteral;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UniqueLabelValidatorTest {
+    private static final Resource SAMPLE = createResource("http://example.com/Sample");
+    private static final Resource SUBJECT = createResource("http://example.com/Subject");
+
+    @Mock
+    private ViolationHandler violationHandler;
+
+    private UniqueLabelValidator validator;
+
+    @Before
+    public void setUp() {
+        validator = new UniqueLabelValidator();
+    }
+
+    @Test
+    public void duplicateLabelOfTheSameTypeIsReported() {
+        var before = createDefaultModel();
+        before.createResource("http://example.com/1").addProperty(RDF.type, SAMPLE).addProperty(RDFS.label, "s1");
+
+        var toAdd = createDefaultModel();
+        var resource = toAdd.createResource("http://example.com/2")
+                .addProperty(RDF.type, SAMPLE)
+                .addProperty(RDFS.label, "s1");
+
+        validator.validate(before, before.union(toAdd), EMPTY_MODEL, toAdd, violationHandler);
+
+        verify(violationHandler).onViolation("Duplicate label", resource, RDFS.label, createPlainLiteral("s1"));
+        verifyNoMoreInteractions(violationHandler);
+    }
+
+    @Test
+    public void sameLabelOfAnotherTypeOrDeletedResourceIsAllowed() {
+        var before = createDefaultModel();
+        before.createResource("http://example.com/1").addProperty(RDF.type, SUBJECT).addProperty(RDFS.label, "s1");
+        before.createResource("http://example.com/2")
+                .addProperty(RDF.type, SAMPLE)
+                .addProperty(RDFS.label, "s1")
+                .addProperty(FS.dateDeleted, "2019-02-03");
+
+        var toAdd = createDefaultModel();
+        toAdd.createResource("http://example.com/3").addProperty(RDF.type, SAMPLE).addProperty(RDFS.label, "s1");
+
+        validator.validate(before, before.union(toAdd), EMPTY_MODEL, toAdd, violationHandler);
+
+        verifyNoInteractions(violationHandler);
+    }
+
+    @Test
+    public void duplicatesInABulkImportAreAllReported() {
+        var before = createDefaultModel();
+        before.createResource("http://example.com/existing")
+                .addProperty(RDF.type, SAMPLE)
+                .addProperty(RDFS.label, "sample 0");
+
+        var toAdd = createDefaultModel();
+        for (var i = 0; i < BATCH_THRESHOLD; i++) {
+            toAdd.createResource("http://example.com/new" + i)
+                    .addProperty(RDF.type, SAMPLE)
+                    .addProperty(RDFS.label, "sample " + i);
+        }
+        var duplicate = toAdd.createResource("http://example.com/duplicate")
+                .addProperty(RDF.type, SAMPLE)
+                .addProperty(RDFS.label, "sample 1");
+
+        validator.validate(before, before.union(toAdd), EMPTY_MODEL, toAdd, violationHandler);
+
+        verify(violationHandler)
+                .onViolation(
+                        "Duplicate label",
+                        toAdd.createResource("http://example.com/new0"),
+                        RDFS.label,
+                        createPlainLiteral("sample 0"));
+        verify(violationHandler)
+                .onViolation(
+                        "Duplicate label",
+                        toAdd.createResource("http://example.com/new1"),
+                        RDFS.label,
+                        createPlainLiteral("sample 1"));
+        verify(violationHandler).onViolation("Duplicate label", duplicate, RDFS.label, createPlainLiteral("sample 1"));
+        verifyNoMoreInteractions(violationHandler);
+    }
+
+    @Test
+    public void largeImportOfUniqueLabelsIsValidatedQuickly() {
+        var toAdd = createDefaultModel();
+        for (var i = 0; i < 20_000; i++) {
+            toAdd.createResource("http://example.com/sample" + i)
+                    .addProperty(RDF.type, SAMPLE)
+                    .addProperty(RDFS.label, "sample " + i);
+        }
+
+        var start = System.currentTimeMillis();
+        validator.validate(EMPTY_MODEL, toAdd, EMPTY_MODEL, toAdd, violationHandler);
+        var duration = System.currentTimeMillis() - start;
+
+        verifyNoInteractions(violationHandler);
+        assertTrue("Validation took " + duration + "ms", duration < 5_000);
+    }
+}
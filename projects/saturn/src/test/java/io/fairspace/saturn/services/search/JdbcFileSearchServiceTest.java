@@ -140,11 +140,17 @@ public class JdbcFileSearchServiceTest extends PostgresAwareTest {
                 viewsProperties,
                 ds,
                 viewStoreReader,
-                viewStoreClientFactory,
                 permissions);
 
         maintenanceService = new MaintenanceService(
-                viewsProperties, userService, ds, viewStoreClientFactory, viewService, "http://localhost:8080");
+                viewsProperties,
+                userService,
+                ds,
+                viewStoreClientFactory,
+                viewService,
+                "http://localhost:8080",
+                store,
+                null);
 
         workspaceService = new WorkspaceService(tx, userService);
 
@@ -2,12 +2,17 @@ package io.fairspace.saturn.services.views;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.sql.DataSource;
 
+import com.pivovarit.function.ThrowingConsumer;
 import io.milton.http.ResourceFactory;
 import io.milton.http.exceptions.BadRequestException;
 import io.milton.http.exceptions.ConflictException;
@@ -24,6 +29,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 
 import io.fairspace.saturn.PostgresAwareTest;
 import io.fairspace.saturn.config.properties.CacheProperties;
@@ -63,7 +69,15 @@ import static io.fairspace.saturn.auth.RequestContext.getCurrentRequest;
 import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -87,6 +101,9 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
     WorkspaceService workspaceService;
     MetadataService api;
     QueryService sut;
+    SearchProperties searchProperties;
+    ViewStoreClientFactory viewStoreClientFactory;
+    ViewStoreReader viewStoreReader;
     MaintenanceService maintenanceService;
 
     private DAO dao;
@@ -111,7 +128,7 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
         JenaProperties.setMetadataBaseIRI("http://localhost/iri/");
         var viewDatabase = buildViewDatabaseConfig();
         ViewsProperties viewsProperties = loadViewsConfig("src/test/resources/test-views.yaml");
-        SearchProperties searchProperties = new SearchProperties();
+        searchProperties = new SearchProperties();
         searchProperties.setCountRequestTimeout(60000);
         searchProperties.setPageRequestTimeout(10000);
         searchProperties.setMaxJoinItems(50);
@@ -119,8 +136,8 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
         DataSource dataSource = getDataSource(viewDatabase);
         MaterializedViewService materializedViewService = new MaterializedViewService(
                 dataSource, configuration, viewsProperties, searchProperties.getMaxJoinItems());
-        var viewStoreClientFactory = new ViewStoreClientFactory(
-                viewsProperties, viewDatabase, materializedViewService, dataSource, configuration);
+        viewStoreClientFactory = spy(new ViewStoreClientFactory(
+                viewsProperties, viewDatabase, materializedViewService, dataSource, configuration));
 
         var dsg = new TxnIndexDatasetGraph(
                 viewsProperties, DatasetGraphFactory.createTxnMem(), viewStoreClientFactory, PUBLIC_URL);
@@ -133,19 +150,18 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
 
         dao = new DAO(model);
 
-        var viewStoreReader =
-                new ViewStoreReader(searchProperties, viewsProperties, viewStoreClientFactory, configuration);
+        viewStoreReader =
+                spy(new ViewStoreReader(searchProperties, viewsProperties, viewStoreClientFactory, configuration));
         var viewService = new ViewService(
                 searchProperties,
                 new CacheProperties(),
                 viewsProperties,
                 ds,
                 viewStoreReader,
-                viewStoreClientFactory,
                 permissions);
 
         maintenanceService = new MaintenanceService(
-                viewsProperties, userService, ds, viewStoreClientFactory, viewService, PUBLIC_URL);
+                viewsProperties, userService, ds, viewStoreClientFactory, viewService, PUBLIC_URL, store, null);
 
         workspaceService = new WorkspaceService(tx, userService);
 
@@ -160,7 +176,7 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
                 userVocabulary,
                 vocabulary);
 
-        sut = new JdbcQueryService(tx, davFactory.root, viewStoreReader);
+        sut = new JdbcQueryService(tx, davFactory.root, viewStoreReader, searchProperties, viewDatabase);
 
         when(permissions.canWriteMetadata(any())).thenReturn(true);
 
@@ -446,4 +462,138 @@ public class JdbcQueryServiceTest extends PostgresAwareTest {
         var result = sut.count(request);
         Assert.assertEquals(4, result.count());
     }
+
+    @Test
+    public void testCountSamplesBelowTheExactCountThresholdIsExact() {
+        searchProperties.setExactCountThreshold(1_000_000);
+        selectRegularUser();
+        var requestParams = new CountRequest();
+        requestParams.setView("Sample");
+        var result = sut.count(requestParams);
+        assertEquals(2, result.count());
+        Assert.assertFalse(result.estimated());
+    }
+
+    @Test
+    public void testCountSamplesAboveTheExactCountThresholdIsEstimated() {
+        searchProperties.setExactCountThreshold(1);
+        selectRegularUser();
+        var requestParams = new CountRequest();
+        requestParams.setView("Sample");
+        var result = sut.count(requestParams);
+        Assert.assertTrue(result.estimated());
+        Assert.assertTrue(result.count() > 1);
+    }
+
+    @Test
+    public void testCountWithMaxDisplayCountIsNeverEstimated() {
+        searchProperties.setExactCountThreshold(1);
+        var request = new CountRequest();
+        request.setView("Subject");
+        var result = sut.count(request);
+        Assert.assertEquals(1, result.count());
+        Assert.assertFalse(result.estimated());
+    }
+
+    @Test
+    public void testPageAndCountAreRetrievedConcurrently() throws SQLException {
+        // Both queries are delayed by a second
+        Answer<?> slowly = invocation -> {
+            try (var connection = viewStoreReader.viewStoreClientFactory.getConnection();
+                    var statement = connection.createStatement()) {
+                statement.execute("select pg_sleep(1)");
+            }
+            return invocation.callRealMethod();
+        };
+        doAnswer(slowly).when(viewStoreReader).retrieveRows(any(), any(), anyInt(), anyInt(), anyBoolean());
+        doAnswer(slowly).when(viewStoreReader).countOrEstimateRows(any(), any(), any());
+
+        var request = new ViewRequest();
+        request.setView("Sample");
+        request.setPage(1);
+        request.setSize(10);
+        request.setIncludeCounts(true);
+
+        var start = System.currentTimeMillis();
+        var page = sut.retrieveViewPage(request);
+        var duration = System.currentTimeMillis() - start;
+
+        Assert.assertEquals(2, page.getRows().size());
+        Assert.assertEquals(Long.valueOf(2), page.getTotalCount());
+        Assert.assertTrue("Retrieving the page took " + duration + "ms", duration < 2_000);
+    }
+
+    @Test
+    public void testCountIsCancelledWhenThePageFails() throws Exception {
+        var countFinished = new CompletableFuture<Long>();
+        doAnswer(invocation -> {
+                    ThrowingConsumer<Statement, SQLException> onExecute = invocation.getArgument(2);
+                    var start = System.currentTimeMillis();
+                    try (var connection = viewStoreReader.viewStoreClientFactory.getConnection();
+                            var statement = connection.createStatement()) {
+                        onExecute.accept(statement);
+                        statement.execute("select pg_sleep(30)");
+                    } finally {
+                        countFinished.complete(System.currentTimeMillis() - start);
+                    }
+                    return invocation.callRealMethod();
+                })
+                .when(viewStoreReader)
+                .countOrEstimateRows(any(), any(), any());
+        doAnswer(invocation -> {
+                    Thread.sleep(500);
+                    throw new QueryException("Error retrieving rows", new SQLException());
+                })
+                .when(viewStoreReader)
+                .retrieveRows(any(), any(), anyInt(), anyInt(), anyBoolean());
+
+        var request = new ViewRequest();
+        request.setView("Sample");
+        request.setIncludeCounts(true);
+
+        Assert.assertThrows(QueryException.class, () -> sut.retrieveViewPage(request));
+
+        // The running statement is cancelled instead of holding its connection until it completes
+        var countDuration = countFinished.get(10, TimeUnit.SECONDS);
+        Assert.assertTrue("The count query ran for " + countDuration + "ms", countDuration < 10_000);
+    }
+
+    @Test
+    public void testPageRowsAreKeptWhenTheCountTimesOut() throws SQLException {
+        doThrow(new SQLTimeoutException()).when(viewStoreReader).countOrEstimateRows(any(), any(), any());
+
+        var request = new ViewRequest();
+        request.setView("Sample");
+        request.setPage(1);
+        request.setSize(10);
+        request.setIncludeCounts(true);
+
+        var page = sut.retrieveViewPage(request);
+
+        Assert.assertTrue(page.isTimeout());
+        Assert.assertEquals(2, page.getRows().size());
+        Assert.assertNull(page.getTotalCount());
+    }
+
+    @Test
+    public void testRetrieveSamplePageBorrowsAConnectionPerQuery() throws SQLException {
+        var request = new ViewRequest();
+        request.setView("Sample");
+        request.setPage(1);
+        request.setSize(10);
+        request.setIncludeJoinedViews(true);
+        request.setIncludeCounts(true);
+        request.setFilters(Collections.singletonList(ViewFilter.builder()
+                .field("Sample_nature")
+                .values(Collections.singletonList(SAMPLE_NATURE_BLOOD))
+                .build()));
+        clearInvocations(viewStoreClientFactory);
+
+        var page = sut.retrieveViewPage(request);
+
+        Assert.assertEquals(1, page.getRows().size());
+        Assert.assertEquals(Long.valueOf(1), page.getTotalCount());
+        // One connection for the rows, labels and joins, and one for the count, which runs concurrently
+        verify(viewStoreClientFactory, times(2)).getConnection();
+    }
 }
@@ -2,6 +2,7 @@ package io.fairspace.saturn.services.views;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.EnumSet;
 import java.util.List;
 
 import io.milton.http.ResourceFactory;
@@ -15,6 +16,7 @@ import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.Txn;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -25,9 +27,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 import io.fairspace.saturn.PostgresAwareTest;
 import io.fairspace.saturn.auth.RequestContext;
 import io.fairspace.saturn.config.properties.CacheProperties;
+import io.fairspace.saturn.config.properties.SearchProperties;
 import io.fairspace.saturn.config.properties.ViewsProperties;
+import io.fairspace.saturn.config.properties.ViewsProperties.ColumnType;
 import io.fairspace.saturn.config.properties.WebDavProperties;
+import io.fairspace.saturn.controller.dto.ValueDto;
+import io.fairspace.saturn.rdf.ChangedPredicatesDatasetGraph;
 import io.fairspace.saturn.rdf.SparqlUtils;
+import io.fairspace.saturn.rdf.search.FilteredDatasetGraph;
 import io.fairspace.saturn.rdf.transactions.SimpleTransactions;
 import io.fairspace.saturn.rdf.transactions.Transactions;
 import io.fairspace.saturn.rdf.transactions.TxnIndexDatasetGraph;
@@ -50,6 +57,9 @@ import static io.fairspace.saturn.TestUtils.setupRequestContext;
 import static io.fairspace.saturn.auth.RequestContext.getCurrentRequest;
 import static io.fairspace.saturn.services.views.ViewService.USER_DOES_NOT_HAVE_PERMISSIONS_TO_READ_FACETS;
 
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.sparql.core.DatasetImpl.wrap;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -77,12 +87,17 @@ public class ViewServiceTest extends PostgresAwareTest {
 
     MetadataService api;
     ViewService viewService;
+    Dataset ds;
+    ViewsProperties viewsProperties;
+    SearchProperties searchProperties;
+    CacheProperties cacheProperties;
+    ViewStoreReader viewStoreReader;
 
     @Before
     public void before()
             throws SQLException, BadRequestException, ConflictException, NotAuthorizedException, IOException {
         var viewDatabase = buildViewDatabaseConfig();
-        var viewsProperties = loadViewsConfig("src/test/resources/test-views.yaml");
+        viewsProperties = loadViewsConfig("src/test/resources/test-views.yaml");
         var configuration = new ViewStoreClient.ViewStoreConfiguration(viewsProperties);
         var dataSource = getDataSource(viewDatabase);
         var viewStoreClientFactory = new ViewStoreClientFactory(
@@ -90,20 +105,20 @@ public class ViewServiceTest extends PostgresAwareTest {
         var dsg = new TxnIndexDatasetGraph(
                 viewsProperties, DatasetGraphFactory.createTxnMem(), viewStoreClientFactory, "http://localhost:8080");
 
-        Dataset ds = wrap(dsg);
+        ds = wrap(new ChangedPredicatesDatasetGraph(dsg));
 
         loadTestData(ds);
 
-        var searchProperties = buildSearchProperties();
-        var viewStoreReader =
-                new ViewStoreReader(searchProperties, viewsProperties, viewStoreClientFactory, configuration);
+        searchProperties = buildSearchProperties();
+        viewStoreReader = new ViewStoreReader(searchProperties, viewsProperties, viewStoreClientFactory, configuration);
+        cacheProperties = new CacheProperties();
+        cacheProperties.getFacets().setRefreshOnChangeDelayInMillis(0);
         viewService = new ViewService(
                 searchProperties,
-                new CacheProperties(),
+                cacheProperties,
                 viewsProperties,
                 ds,
                 viewStoreReader,
-                viewStoreClientFactory,
                 permissions);
     }
 
@@ -181,6 +196,87 @@ public class ViewServiceTest extends PostgresAwareTest {
         verify(sut, never()).fetchViews();
     }
 
+    @Test
+    public void testEditingAPropertyRefreshesOnlyItsFacet() throws InterruptedException {
+        when(permissions.canReadFacets()).thenReturn(true);
+        var before = viewService.getVersionedFacets();
+
+        Txn.executeWrite(ds, () -> ds.getDefaultModel()
+                .addLiteral(
+                        createResource("http://example.com/subjects#s2"),
+                        createProperty("https://institut-curie.org/ontology#hasSequenceData"),
+                        false));
+
+        var after = viewService.getVersionedFacets();
+        for (var i = 0; i < 100 && after.version() == before.version(); i++) {
+            Thread.sleep(50);
+            after = viewService.getVersionedFacets();
+        }
+
+        Assert.assertTrue(after.version() > before.version());
+        Assert.assertEquals(before.value().size(), after.value().size());
+        for (var i = 0; i < before.value().size(); i++) {
+            var facet = after.value().get(i);
+            if (facet.name().equals("Subject_hasSequenceData")) {
+                Assert.assertNotSame(before.value().get(i), facet);
+            } else {
+                Assert.assertSame(before.value().get(i), facet);
+            }
+        }
+    }
+
+    @Test
+    public void testFacetsAreComputedWithoutPermissionChecks() {
+        when(permissions.canReadFacets()).thenReturn(true);
+        var filteredDataset = wrap(new FilteredDatasetGraph(ds.asDatasetGraph(), permissions));
+
+        var unfiltered = new ViewService(
+                searchProperties, cacheProperties, viewsProperties, ds, new SparqlFacetProvider(ds), permissions);
+        var sut = new ViewService(
+                searchProperties,
+                cacheProperties,
+                viewsProperties,
+                filteredDataset,
+                new SparqlFacetProvider(filteredDataset),
+                permissions);
+
+        Assert.assertEquals(unfiltered.getFacets(), sut.getFacets());
+        verify(permissions, never()).canReadMetadata(any());
+    }
+
+    @Test
+    public void testTermFacetsFromTheViewDatabaseMatchTheSparqlFacets() {
+        var sparqlFacetProvider = new SparqlFacetProvider(ds);
+        for (var view : viewsProperties.views) {
+            for (var column : view.columns) {
+                if (EnumSet.of(ColumnType.Term, ColumnType.TermSet).contains(column.type)) {
+                    Assert.assertEquals(
+                            sparqlFacetProvider.getFacet(view, column).values(),
+                            viewStoreReader.getFacet(view, column).values());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeletedTermsAreNotFacetValues() {
+        var subjectView = viewsProperties.getViewConfig("Subject").orElseThrow();
+        var reuseColumn = subjectView.columns.stream()
+                .filter(column -> column.name.equals("reuseClinicalWithGeneticData"))
+                .findFirst()
+                .orElseThrow();
+        var geneticAnalysisColumn = subjectView.columns.stream()
+                .filter(column -> column.name.equals("geneticAnalysis"))
+                .findFirst()
+                .orElseThrow();
+
+        // The deleted term with the same label as the term replacing it is left out
+        Assert.assertEquals(
+                List.of(new ValueDto("Unknown", "https://institut-curie.org/consentAnswer#unknown")),
+                viewStoreReader.getFacet(subjectView, reuseColumn).values());
+        Assert.assertEquals(List.of(), viewStoreReader.getFacet(subjectView, geneticAnalysisColumn).values());
+    }
+
     private void loadTestData(Dataset ds)
             throws NotAuthorizedException, BadRequestException, ConflictException, IOException {
         // TODO: loaded data to be mocked instead of loading them this way
@@ -235,5 +331,7 @@ public class ViewServiceTest extends PostgresAwareTest {
 
         var testdata = model.read("testdata.ttl");
         api.put(testdata, Boolean.TRUE);
+
+        api.put(createDefaultModel().read("test-replaced-terms.ttl"), Boolean.TRUE);
     }
 }
@@ -1,10 +1,13 @@
 package io.fairspace.saturn.services.workspaces;
 
+import java.time.Instant;
 import javax.mail.Session;
 
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -19,6 +22,7 @@ import io.fairspace.saturn.services.users.UserService;
 import io.fairspace.saturn.vocabulary.FS;
 
 import static io.fairspace.saturn.TestUtils.setupRequestContext;
+import static io.fairspace.saturn.rdf.SparqlUtils.toXSDDateTimeLiteral;
 
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.apache.jena.query.DatasetFactory.createTxnMem;
@@ -100,4 +104,89 @@ public class WorkspaceServiceTest {
             assertEquals("Workspace is not empty", e.getMessage());
         }
     }
+
+    @Test
+    public void testListWorkspacesSummaries() {
+        var member = createResource("http://localhost/iri/U1");
+        var manager = createResource("http://localhost/iri/U2");
+        var deletedManager = createResource("http://localhost/iri/U3");
+        var deletedCollection = createResource("http://localhost/iri/C2");
+        txn.executeWrite(model -> addLifecycle(model, WORKSPACE_1)
+                .add(member, RDF.type, FS.User)
+                .add(member, FS.isMemberOf, WORKSPACE_1)
+                .add(manager, RDF.type, FS.User)
+                .add(manager, RDFS.label, "Manager")
+                .add(manager, FS.id, "u2")
+                .add(manager, FS.isManagerOf, WORKSPACE_1)
+                .add(manager, FS.isManagerOf, EMPTY_WORKSPACE)
+                .add(deletedManager, RDF.type, FS.User)
+                .add(deletedManager, FS.isManagerOf, WORKSPACE_1)
+                .add(deletedManager, FS.dateDeleted, "2024-01-01")
+                .add(deletedCollection, RDF.type, FS.Collection)
+                .add(deletedCollection, FS.ownedBy, WORKSPACE_1)
+                .add(deletedCollection, FS.dateDeleted, "2024-01-01"));
+        txn.executeWrite(model -> addLifecycle(model, EMPTY_WORKSPACE));
+        user.setCanViewPublicMetadata(true);
+
+        var workspaces = service.listWorkspaces();
+
+        assertEquals(2, workspaces.size());
+        var ws1 = workspaces.stream()
+                .filter(ws -> ws.getIri().getURI().equals(WORKSPACE_1.getURI()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, ws1.getSummary().getTotalCollectionCount());
+        assertEquals(1, ws1.getSummary().getNonDeletedCollectionCount());
+        assertEquals(2, ws1.getSummary().getMemberCount());
+        assertEquals(1, ws1.getManagers().size());
+        assertEquals(manager.asNode(), ws1.getManagers().getFirst().getIri());
+        assertEquals("Manager", ws1.getManagers().getFirst().getName());
+        var ws2 = workspaces.stream()
+                .filter(ws -> ws.getIri().getURI().equals(EMPTY_WORKSPACE.getURI()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, ws2.getSummary().getTotalCollectionCount());
+        assertEquals(1, ws2.getSummary().getMemberCount());
+    }
+
+    @Test
+    public void testListManyWorkspacesWithManyUsers() {
+        txn.executeWrite(model -> {
+            addLifecycle(model, WORKSPACE_1);
+            addLifecycle(model, EMPTY_WORKSPACE);
+            for (var w = 0; w < 500; w++) {
+                var ws = createResource("http://localhost/iri/workspace" + w);
+                addLifecycle(model, ws).add(ws, RDF.type, FS.Workspace);
+                for (var u = 0; u < 40; u++) {
+                    var member = createResource("http://localhost/iri/user" + (w * 40 + u));
+                    model.add(member, RDF.type, FS.User)
+                            .add(member, FS.id, "user" + (w * 40 + u))
+                            .add(member, RDFS.label, "User " + (w * 40 + u))
+                            .add(member, u == 0 ? FS.isManagerOf : FS.isMemberOf, ws);
+                }
+            }
+        });
+        user.setAdmin(true);
+
+        var start = System.currentTimeMillis();
+        var workspaces = service.listWorkspaces();
+        var duration = System.currentTimeMillis() - start;
+
+        assertEquals(502, workspaces.size());
+        workspaces.stream()
+                .filter(ws -> ws.getIri().getURI().contains("workspace"))
+                .forEach(ws -> {
+                    assertEquals(40, ws.getSummary().getMemberCount());
+                    assertEquals(1, ws.getManagers().size());
+                });
+        assertTrue("Listing workspaces took " + duration + "ms", duration < 5_000);
+    }
+
+    private static Model addLifecycle(Model model, Resource resource) {
+        var now = toXSDDateTimeLiteral(Instant.now());
+        return model.add(resource, FS.createdBy, RESOURCE_1)
+                .add(resource, FS.dateCreated, now)
+                .add(resource, FS.modifiedBy, RESOURCE_1)
+                .add(resource, FS.dateModified, now);
+    }
 }
@@ -0,0 +1,155 @@
+package io.fairspace.saturn.webdav;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.milton.http.FileItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.fairspace.saturn.webdav.blobstore.BlobFileItem;
+import io.fairspace.saturn.webdav.blobstore.BlobStore;
+import io.fairspace.saturn.webdav.blobstore.DeletableLocalBlobStore;
+import io.fairspace.saturn.webdav.blobstore.LocalBlobStore;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.apache.commons.io.FileUtils.listFiles;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BlobFileItemTest {
+    private static final int FILE_COUNT = 500;
+
+    private final File dir = new File(getTempDirectory(), randomUUID().toString());
+    private final ExecutorService uploadExecutor = Executors.newFixedThreadPool(4);
+    private BlobStore blobStore;
+
+    @Before
+    public void before() {
+        blobStore = new LocalBlobStore(dir);
+    }
+
+    @After
+    public void after() throws IOException {
+        uploadExecutor.shutdown();
+        deleteDirectory(dir);
+    }
+
+    @Test
+    public void shouldStoreAllUploadedFiles() throws IOException {
+        var files = new HashMap<String, FileItem>();
+        for (var i = 0; i < FILE_COUNT; i++) {
+            files.put("/dir/file" + i, fileItem("content " + i));
+        }
+
+        var stored = BlobFileItem.storeAll(files, blobStore, uploadExecutor);
+
+        assertEquals(files.keySet(), stored.keySet());
+        for (var i = 0; i < FILE_COUNT; i++) {
+            var blob = ((BlobFileItem) stored.get("/dir/file" + i)).getBlob();
+            var out = new ByteArrayOutputStream();
+            blobStore.read(blob.id, out, 0, null);
+            assertEquals("content " + i, out.toString(UTF_8));
+            assertEquals(out.size(), blob.size);
+        }
+    }
+
+    @Test
+    public void shouldPropagateStorageErrors() {
+        var files = Map.of("/file1", fileItem("content"), "/file2", failingFileItem());
+
+        assertThrows(RuntimeException.class, () -> BlobFileItem.storeAll(files, blobStore, uploadExecutor));
+    }
+
+    @Test
+    public void shouldDeleteStoredBlobsWhenAnUploadFails() {
+        var deletableStore = new DeletableLocalBlobStore(dir);
+        var files = new HashMap<String, FileItem>();
+        for (var i = 0; i < FILE_COUNT; i++) {
+            files.put("/dir/file" + i, fileItem("content " + i));
+        }
+        files.put("/dir/failing", failingFileItem());
+
+        assertThrows(RuntimeException.class, () -> BlobFileItem.storeAll(files, deletableStore, uploadExecutor));
+
+        assertEquals(0, listFiles(dir, null, true).size());
+    }
+
+    @Test
+    public void shouldDeleteStoredBlobsWhenTheTransactionIsAborted() {
+        var deletableStore = new DeletableLocalBlobStore(dir);
+        var files = Map.of("/file1", fileItem("content 1"), "/file2", fileItem("content 2"));
+
+        var stored = BlobFileItem.storeAll(files, deletableStore, uploadExecutor);
+        assertEquals(2, listFiles(dir, null, true).size());
+
+        BlobFileItem.deleteAll(stored.values(), deletableStore);
+
+        assertEquals(0, listFiles(dir, null, true).size());
+    }
+
+    @Test
+    public void shouldDiscardBlobsOfANonDeletableStoreWhenTheTransactionIsAborted() {
+        var files = Map.of("/file1", fileItem("content 1"), "/file2", fileItem("content 2"));
+
+        var stored = BlobFileItem.storeAll(files, blobStore, uploadExecutor);
+        assertEquals(2, listFiles(dir, null, true).size());
+
+        BlobFileItem.deleteAll(stored.values(), blobStore);
+
+        assertEquals(0, listFiles(dir, null, true).size());
+    }
+
+    @Test
+    public void shouldKeepBlobsOfAStoreThatCannotDiscardThem() {
+        var store = new BlobStore() {
+            @Override
+            public String write(InputStream in) throws IOException {
+                return blobStore.write(in);
+            }
+
+            @Override
+            public void read(String id, OutputStream out, long start, Long finish) throws IOException {
+                blobStore.read(id, out, start, finish);
+            }
+        };
+        var files = Map.of("/file1", fileItem("content 1"), "/file2", fileItem("content 2"));
+
+        var stored = BlobFileItem.storeAll(files, store, uploadExecutor);
+        BlobFileItem.deleteAll(stored.values(), store);
+
+        assertEquals(2, listFiles(dir, null, true).size());
+    }
+
+    private static FileItem failingFileItem() {
+        var failing = mock(FileItem.class);
+        when(failing.getInputStream()).thenReturn(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        return failing;
+    }
+
+    private static FileItem fileItem(String content) {
+        var file = mock(FileItem.class);
+        when(file.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(content.getBytes(UTF_8)));
+        when(file.getContentType()).thenReturn("text/plain");
+        return file;
+    }
+}
@@ -0,0 +1,53 @@
+package io.fairspace.saturn.webdav;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.xml.namespace.QName;
+
+import io.milton.http.values.ValueAndType;
+import io.milton.http.webdav.PropFindResponse;
+import io.milton.http.webdav.PropFindXmlGenerator;
+import org.junit.Test;
+
+import io.fairspace.saturn.vocabulary.FS;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+public class BufferedPropFindXmlGeneratorTest {
+    private final NullSafeValueWriters valueWriters = new NullSafeValueWriters();
+
+    @Test
+    public void producesTheSameDocumentAsTheDefaultGenerator() {
+        var responses = new ArrayList<PropFindResponse>();
+        for (var i = 0; i < 1000; i++) {
+            responses.add(new PropFindResponse(
+                    "/api/webdav/coll/file" + i,
+                    Map.of(
+                            new QName("DAV:", "displayname"),
+                            new ValueAndType("file" + i, String.class),
+                            new QName(FS.NS, "iri"),
+                            new ValueAndType("http://example.com/api/webdav/coll/file" + i, String.class)),
+                    Map.of()));
+        }
+
+        assertEquals(
+                generate(new PropFindXmlGenerator(valueWriters), responses),
+                generate(new BufferedPropFindXmlGenerator(valueWriters), responses));
+    }
+
+    @Test
+    public void producesAnEmptyMultistatusDocument() {
+        assertEquals(
+                generate(new PropFindXmlGenerator(valueWriters), List.of()),
+                generate(new BufferedPropFindXmlGenerator(valueWriters), List.of()));
+    }
+
+    private static String generate(PropFindXmlGenerator generator, List<PropFindResponse> responses) {
+        var out = new ByteArrayOutputStream();
+        generator.generate(responses, out, false);
+        return out.toString(UTF_8);
+    }
+}
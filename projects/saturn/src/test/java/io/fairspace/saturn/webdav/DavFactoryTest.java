@@ -22,7 +22,8 @@ import io.milton.resource.ReplaceableResource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
-import org.apache.jena.sparql.util.Context;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -31,6 +32,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import io.fairspace.saturn.config.properties.JenaProperties;
 import io.fairspace.saturn.config.properties.WebDavProperties;
+import io.fairspace.saturn.rdf.CollectionNameIndex;
 import io.fairspace.saturn.rdf.dao.DAO;
 import io.fairspace.saturn.rdf.transactions.SimpleTransactions;
 import io.fairspace.saturn.rdf.transactions.Transactions;
@@ -42,6 +44,8 @@ import io.fairspace.saturn.services.workspaces.WorkspaceService;
 import io.fairspace.saturn.vocabulary.FS;
 import io.fairspace.saturn.webdav.blobstore.BlobInfo;
 import io.fairspace.saturn.webdav.blobstore.BlobStore;
+import io.fairspace.saturn.webdav.resources.DirectoryResource;
+import io.fairspace.saturn.webdav.resources.FileResource;
 
 import static io.fairspace.saturn.TestUtils.ADMIN;
 import static io.fairspace.saturn.TestUtils.USER;
@@ -52,12 +56,14 @@ import static io.fairspace.saturn.auth.RequestContext.getCurrentRequest;
 
 import static io.milton.http.ResponseStatus.SC_FORBIDDEN;
 import static java.lang.String.format;
-import static org.apache.jena.query.DatasetFactory.createTxnMem;
+import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.sparql.core.DatasetGraphFactory.createTxnMem;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.lenient;
@@ -83,14 +89,13 @@ public class DavFactoryTest {
     WorkspaceService workspaceService;
     Workspace workspace;
 
-    Context context = new Context();
     User user;
     User workspaceManager;
     User admin;
     private HttpServletRequest request;
 
     private ResourceFactory factory;
-    private final Dataset ds = createTxnMem();
+    private final Dataset ds = wrap(new CollectionNameIndex(createTxnMem()));
     private final Transactions tx = new SimpleTransactions(ds);
     private final Model model = ds.getDefaultModel();
     private final DAO dao = new DAO(model);
@@ -120,7 +125,7 @@ public class DavFactoryTest {
                 model.createResource(baseUri),
                 store,
                 userService,
-                context,
+                ds.getContext(),
                 new WebDavProperties(),
                 userVocabulary,
                 vocabulary);
@@ -256,6 +261,42 @@ public class DavFactoryTest {
         assertEquals(2, root.getChildren().size());
     }
 
+    @Test
+    public void testCreateCollectionAfterAbortedCreation()
+            throws NotAuthorizedException, BadRequestException, ConflictException {
+        var root = (MakeCollectionableResource) factory.getResource(null, BASE_PATH);
+        assertThrows(IllegalStateException.class, () -> tx.executeWrite(m -> {
+            root.createCollection("coll");
+            throw new IllegalStateException();
+        }));
+
+        assertNotNull(root.createCollection("coll"));
+        assertEquals(1, root.getChildren().size());
+    }
+
+    @Test
+    public void testRootWithManyCollections() throws NotAuthorizedException, BadRequestException, ConflictException {
+        var otherWorkspace = model.createResource("http://example.com/other-workspace");
+        tx.executeWrite(m -> {
+            for (var i = 0; i < 50_000; i++) {
+                m.createResource(baseUri + "/other" + i)
+                        .addProperty(RDF.type, FS.Collection)
+                        .addProperty(RDFS.label, "other" + i)
+                        .addProperty(FS.ownedBy, otherWorkspace)
+                        .addProperty(FS.accessMode, AccessMode.Restricted.name());
+            }
+        });
+        var root = (MakeCollectionableResource) factory.getResource(null, BASE_PATH);
+
+        var start = System.currentTimeMillis();
+        assertNotNull(root.createCollection("coll"));
+        assertThrows(ConflictException.class, () -> root.createCollection("other1"));
+        assertEquals(1, root.getChildren().size());
+        var duration = System.currentTimeMillis() - start;
+
+        assertTrue("Listing the root and creating a collection took " + duration + "ms", duration < 5_000);
+    }
+
     @Test
     public void testCreateDirectory() throws NotAuthorizedException, BadRequestException, ConflictException {
         var root = (MakeCollectionableResource) factory.getResource(null, BASE_PATH);
@@ -363,6 +404,27 @@ public class DavFactoryTest {
         assertEquals(FILE_SIZE, ((GetableResource) ver3).getContentLength().longValue());
     }
 
+    @Test
+    public void testGetChildrenResolvesTypesAndSkipsMovedResources()
+            throws NotAuthorizedException, BadRequestException, ConflictException, IOException {
+        var root = (MakeCollectionableResource) factory.getResource(null, BASE_PATH);
+        var coll = (FolderResource) root.createCollection("coll");
+        var dir = (FolderResource) coll.createCollection("dir");
+        var file = coll.createNew("file", input, FILE_SIZE, "text/abc");
+
+        assertEquals(2, coll.getChildren().size());
+
+        ((MoveableResource) file).moveTo(dir, "file");
+
+        var children = coll.getChildren();
+        assertEquals(1, children.size());
+        assertTrue(children.get(0) instanceof DirectoryResource);
+
+        var dirChildren = dir.getChildren();
+        assertEquals(1, dirChildren.size());
+        assertTrue(dirChildren.get(0) instanceof FileResource);
+    }
+
     @Test
     public void testDeleteFile() throws NotAuthorizedException, BadRequestException, ConflictException, IOException {
         var root = (MakeCollectionableResource) factory.getResource(null, BASE_PATH);
@@ -319,6 +319,27 @@ public class DirectoryResourceTest {
         assertEquals(dir.subject.getProperty(sampleProp).getResource().getURI(), "http://example.com/samples#s1-a");
     }
 
+    @Test
+    public void testLinkedMetadataUploadMultipleRowsSuccess()
+            throws NotAuthorizedException, ConflictException, BadRequestException {
+        Property sampleProp = createProperty("https://institut-curie.org/ontology#sample");
+        dir = (DirectoryResource) davFactory.getResource(null, BASE_PATH + "/coll1");
+
+        String csv =
+                """
+                Path,Is about biological sample
+                .,"Sample A for subject 1|http://example.com/samples#s2-b"
+                ./coffee.jpg,"Sample A for subject 1"
+                """;
+        when(file.getInputStream()).thenReturn(new ByteArrayInputStream(csv.getBytes()));
+        dir.processForm(Map.of("action", "upload_metadata"), Map.of("file", file));
+
+        assertTrue(dir.subject.hasProperty(sampleProp, model.createResource("http://example.com/samples#s1-a")));
+        assertTrue(dir.subject.hasProperty(sampleProp, model.createResource("http://example.com/samples#s2-b")));
+        var coffee = (FileResource) davFactory.getResource(null, BASE_PATH + "/coll1/coffee.jpg");
+        assertTrue(coffee.subject.hasProperty(sampleProp, model.createResource("http://example.com/samples#s1-a")));
+    }
+
     @Test(expected = BadRequestException.class)
     public void testLinkedMetadataUploadByUnknownIRI()
             throws NotAuthorizedException, ConflictException, BadRequestException {
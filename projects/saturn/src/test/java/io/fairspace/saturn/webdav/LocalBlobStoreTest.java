@@ -4,6 +4,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 import org.junit.After;
 import org.junit.Before;
@@ -13,7 +14,9 @@ import io.fairspace.saturn.webdav.blobstore.BlobStore;
 import io.fairspace.saturn.webdav.blobstore.LocalBlobStore;
 
 import static java.util.UUID.randomUUID;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
 import static org.junit.Assert.*;
 
 public class LocalBlobStoreTest {
@@ -28,8 +31,8 @@ public class LocalBlobStoreTest {
     }
 
     @After
-    public void after() {
-        dir.delete();
+    public void after() throws IOException {
+        deleteDirectory(dir);
     }
 
     @Test
@@ -41,6 +44,72 @@ public class LocalBlobStoreTest {
         assertArrayEquals(contents1, out.toByteArray());
     }
 
+    @Test
+    public void shouldReadRequestedRange() throws IOException {
+        var id = blobStore.write(new ByteArrayInputStream(contents2));
+
+        var out = new ByteArrayOutputStream();
+        blobStore.read(id, out, 1, 3L);
+        assertArrayEquals(new byte[] {5, 6, 7}, out.toByteArray());
+
+        out = new ByteArrayOutputStream();
+        blobStore.read(id, out, 4, null);
+        assertArrayEquals(new byte[] {8, 9}, out.toByteArray());
+
+        out = new ByteArrayOutputStream();
+        blobStore.read(id, out, 2, 100L);
+        assertArrayEquals(new byte[] {6, 7, 8, 9}, out.toByteArray());
+    }
+
+    @Test
+    public void shouldStoreBlobsInShardedDirectories() throws IOException {
+        var id = blobStore.write(new ByteArrayInputStream(contents1));
+
+        var file = new File(new File(new File(dir, id.substring(0, 2)), id.substring(2, 4)), id);
+        assertTrue(file.isFile());
+        assertFalse(new File(dir, id).exists());
+    }
+
+    @Test
+    public void shouldReadAndMigrateBlobsInLegacyLayout() throws IOException {
+        var id = randomUUID().toString();
+        writeByteArrayToFile(new File(dir, id), contents2);
+
+        var out = new ByteArrayOutputStream();
+        blobStore.read(id, out, 0, null);
+        assertArrayEquals(contents2, out.toByteArray());
+
+        assertEquals(1, ((LocalBlobStore) blobStore).migrateToShardedLayout());
+        assertFalse(new File(dir, id).exists());
+
+        out = new ByteArrayOutputStream();
+        blobStore.read(id, out, 0, null);
+        assertArrayEquals(contents2, out.toByteArray());
+    }
+
+    @Test
+    public void shouldReadBlobMigratedWhileBeingOpened() throws IOException {
+        var id = randomUUID().toString();
+        writeByteArrayToFile(new File(dir, id), contents2);
+        var store = new LocalBlobStore(dir) {
+            @Override
+            protected File getFile(String blobId) {
+                // The legacy location is resolved, then a concurrent migration moves the blob
+                var legacyFile = new File(dir, blobId);
+                try {
+                    migrateToShardedLayout();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return legacyFile;
+            }
+        };
+
+        var out = new ByteArrayOutputStream();
+        store.read(id, out, 0, null);
+        assertArrayEquals(contents2, out.toByteArray());
+    }
+
     @Test
     public void shouldGenerateUniqueIds() throws IOException {
         var id1 = blobStore.write(new ByteArrayInputStream(contents1));
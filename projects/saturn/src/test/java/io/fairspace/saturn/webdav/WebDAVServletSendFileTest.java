@@ -0,0 +1,91 @@
+package io.fairspace.saturn.webdav;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.fairspace.saturn.auth.RequestContext;
+import io.fairspace.saturn.webdav.blobstore.LocalBlobStore;
+
+import static java.util.UUID.randomUUID;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WebDAVServletSendFileTest {
+    private final File dir = new File(getTempDirectory(), randomUUID().toString());
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private File file;
+
+    @Before
+    public void before() throws IOException {
+        var store = new LocalBlobStore(dir);
+        file = store.getFile(store.write(new ByteArrayInputStream(new byte[] {0, 1, 2, 3, 4, 5})));
+        RequestContext.setCurrentRequest(request);
+    }
+
+    @After
+    public void after() throws IOException {
+        RequestContext.setCurrentRequest(null);
+        deleteDirectory(dir);
+    }
+
+    @Test
+    public void shouldLetTheContainerSendTheFile() {
+        when(request.getAttribute("org.apache.tomcat.sendfile.support")).thenReturn(true);
+
+        assertTrue(WebDAVServlet.sendFile(file, 0, null));
+
+        verify(request).setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+        verify(request).setAttribute("org.apache.tomcat.sendfile.start", 0L);
+        verify(request).setAttribute("org.apache.tomcat.sendfile.end", 6L);
+    }
+
+    @Test
+    public void shouldLetTheContainerSendARange() {
+        when(request.getAttribute("org.apache.tomcat.sendfile.support")).thenReturn(true);
+        when(request.getHeader("Range")).thenReturn("bytes=2-10");
+
+        assertTrue(WebDAVServlet.sendFile(file, 2, 10L));
+
+        verify(request).setAttribute("org.apache.tomcat.sendfile.start", 2L);
+        // the end is exclusive and limited to the size of the file
+        verify(request).setAttribute("org.apache.tomcat.sendfile.end", 6L);
+    }
+
+    @Test
+    public void shouldNotSendMultipleRanges() {
+        when(request.getAttribute("org.apache.tomcat.sendfile.support")).thenReturn(true);
+        when(request.getHeader("Range")).thenReturn("bytes=0-1,3-4");
+
+        assertFalse(WebDAVServlet.sendFile(file, 0, 1L));
+
+        verify(request, never()).setAttribute(anyString(), any());
+    }
+
+    @Test
+    public void shouldNotSendFilesWithoutContainerSupport() {
+        assertFalse(WebDAVServlet.sendFile(file, 0, null));
+
+        verify(request, never()).setAttribute(anyString(), any());
+    }
+
+    @Test
+    public void shouldResolveTheFileOfABlob() {
+        assertTrue(file.isFile());
+        assertEquals(6, file.length());
+    }
+}
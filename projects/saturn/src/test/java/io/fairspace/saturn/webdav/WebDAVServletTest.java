@@ -59,7 +59,7 @@ public class WebDAVServletTest {
 
     @Before
     public void before() throws Exception {
-        servlet = new WebDAVServlet(factory, txn, store);
+        servlet = new WebDAVServlet(factory, txn, store, 2);
 
         when(req.getRequestURL()).thenReturn(new StringBuffer("http://ex.com/api/webdav/resource"));
         when(req.getInputStream()).thenReturn(in);